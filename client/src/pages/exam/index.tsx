@@ -16,10 +16,10 @@ import {
 import { Checkbox } from "@/components/ui/checkbox";
 import { Skeleton } from "@/components/ui/skeleton";
 import { useAuth } from "@/contexts";
-import { quizService, examService } from "@/services";
+import { examService } from "@/services";
 import { ROUTES } from "@/config/constants";
 import { confirmDialog } from "@/components/shared/ConfirmDialog";
-import type { QuestionResponse, ExamSubmissionRequest } from "@/types/backend";
+import type { ExamQuestion, ExamSubmissionRequest } from "@/types/backend";
 
 interface SelectedAnswers {
   [questionId: string]: string[];
@@ -35,20 +35,23 @@ const ExamPage = () => {
   const [isSubmitting, setIsSubmitting] = useState(false);
 
   const {
-    data: quiz,
+    data: session,
     isLoading: quizLoading,
     error: quizError,
   } = useQuery({
     queryKey: ["quiz-exam", quizId],
     queryFn: async () => {
-      if (!quizId) throw new Error("Quiz ID is required");
-      const response = await quizService.getById(quizId);
+      if (!quizId || !user) throw new Error("Quiz ID is required");
+      const response = await examService.start(quizId);
       return response;
     },
-    enabled: !!quizId && isAuthenticated,
-    staleTime: 0,
+    enabled: !!quizId && !!user && isAuthenticated,
+    staleTime: Infinity,
     gcTime: 0,
+    retry: false,
+    refetchOnWindowFocus: false,
   });
+  const quiz = session?.paper;
 
   const submitMutation = useMutation({
     mutationFn: (data: ExamSubmissionRequest) => examService.submit(data),
@@ -90,7 +93,7 @@ const ExamPage = () => {
   };
 
   const handleSubmitExam = async (autoSubmit = false) => {
-    if (!quiz || !user || isSubmitting) return;
+    if (!session || !quiz || !user || isSubmitting) return;
 
     if (!autoSubmit) {
       const confirmed = await confirmDialog({
@@ -113,8 +116,9 @@ const ExamPage = () => {
     }));
 
     const submission: ExamSubmissionRequest = {
+      attemptId: session.attemptId,
       userId: user.id,
-      quizId: quiz.id,
+      quizId: quiz.quizId,
       answers,
     };
 
@@ -178,28 +182,6 @@ const ExamPage = () => {
     );
   }
 
-  if (!quiz.active) {
-    return (
-      <section className="container-custom py-12">
-        <div className="max-w-2xl mx-auto text-center space-y-6">
-          <h1 className="text-3xl font-bold text-destructive">
-            Quiz Not Available
-          </h1>
-          <p className="text-muted-foreground text-lg">
-            This quiz is currently inactive and cannot be taken.
-          </p>
-          <Button
-            onClick={() => navigate(ROUTES.QUIZZES)}
-            size="lg"
-            className="cursor-pointer"
-          >
-            Back to Quizzes
-          </Button>
-        </div>
-      </section>
-    );
-  }
-
   if (!quiz.questions || quiz.questions.length === 0) {
     return (
       <section className="container-custom py-12">
@@ -220,7 +202,7 @@ const ExamPage = () => {
     );
   }
 
-  const currentQuestion: QuestionResponse =
+  const currentQuestion: ExamQuestion =
     quiz.questions[currentQuestionIndex];
 
   return (
@@ -3,13 +3,22 @@ import type {
   ApiResponse,
   ExamSubmissionRequest,
   ExamResultResponse,
+  ExamSessionResponse,
 } from "@/types/backend";
 
 const EXAM_ENDPOINTS = {
   SUBMIT: "/exam/submit",
+  START: (quizId: string) => `/quizzes/${quizId}/start`,
 } as const;
 
 class ExamService {
+  async start(quizId: string): Promise<ExamSessionResponse> {
+    const response = await axiosInstance.post<ApiResponse<ExamSessionResponse>>(
+      EXAM_ENDPOINTS.START(quizId)
+    );
+    return response.data!;
+  }
+
   async submit(data: ExamSubmissionRequest): Promise<ExamResultResponse> {
     const response = await axiosInstance.post<ApiResponse<ExamResultResponse>>(
       EXAM_ENDPOINTS.SUBMIT,
@@ -30,7 +30,15 @@ class QuizService {
     return response.data!;
   }
 
-  async getById(id: string): Promise<QuizDetailResponse> {
+  async getById(id: string): Promise<QuizResponse> {
+    const response = await axiosInstance.get<ApiResponse<QuizResponse>>(
+      API_ENDPOINTS.QUIZZES.BY_ID(id)
+    );
+    return response.data!;
+  }
+
+  // Admin only: questions with their correct answers
+  async getDetails(id: string): Promise<QuizDetailResponse> {
     const response = await axiosInstance.get<ApiResponse<QuizDetailResponse>>(
       API_ENDPOINTS.QUIZZES.DETAILS(id)
     );
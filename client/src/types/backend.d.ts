@@ -141,7 +141,37 @@ export interface AnswerRequest {
   isCorrect: boolean;
 }
 
+export interface ExamAnswer {
+  id: string;
+  content: string;
+}
+
+export interface ExamQuestion {
+  id: string;
+  content: string;
+  type: QuestionType;
+  score: number;
+  answers: ExamAnswer[];
+}
+
+export interface ExamPaper {
+  quizId: string;
+  title: string;
+  description: string;
+  durationMinutes: number;
+  questions: ExamQuestion[];
+  contentHash: string;
+}
+
+export interface ExamSessionResponse {
+  attemptId: string;
+  startedAt: string;
+  deadline: string;
+  paper: ExamPaper;
+}
+
 export interface ExamSubmissionRequest {
+  attemptId: string;
   userId: string;
   quizId: string;
   answers: {
@@ -24,6 +24,12 @@ repositories {
 	mavenCentral()
 }
 
+// JMH micro-benchmarks live in src/jmh/java; run with `gradle jmh -Pjmh.includes=<regex> [-Pjmh.profilers=gc]`
+val jmh: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+	runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-security")
@@ -55,6 +61,13 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-data-redis")
 	implementation("io.lettuce:lettuce-core")
 
+	// Caffeine for the in-process (L1) cache tier
+	implementation("com.github.ben-manes.caffeine:caffeine")
+
+	// Binary Redis payload codec (Smile + LZ4)
+	implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+	implementation("org.lz4:lz4-java:1.8.0")
+
 	// Redisson + Bucket4j for distributed rate limiting
 	implementation("org.redisson:redisson:3.27.2")
 	implementation("org.redisson:redisson-spring-data-30:3.27.2")
@@ -65,9 +78,15 @@ dependencies {
 	runtimeOnly("org.postgresql:postgresql")
 
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
+	testImplementation("org.springframework.boot:spring-boot-starter-data-jpa-test")
 	testImplementation("org.springframework.security:spring-security-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 	testRuntimeOnly("com.h2database:h2")
+
+	"jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+	"jmhImplementation"("org.springframework:spring-test")
+	"jmhRuntimeOnly"("com.h2database:h2")
+	"jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.withType<Test> {
@@ -78,6 +97,16 @@ tasks.withType<JavaCompile>().configureEach {
 	options.compilerArgs.add("-parameters")
 }
 
+tasks.register<JavaExec>("jmh") {
+	group = "benchmark"
+	description = "Runs the JMH benchmarks in src/jmh/java"
+	classpath = jmh.runtimeClasspath
+	mainClass.set("org.openjdk.jmh.Main")
+	args(providers.gradleProperty("jmh.includes").getOrElse(".*"))
+	// e.g. -Pjmh.profilers=gc for allocation per operation
+	providers.gradleProperty("jmh.profilers").orNull?.split(",")?.forEach { args("-prof", it) }
+}
+
 tasks.named<org.springframework.boot.gradle.tasks.run.BootRun>("bootRun") {
 	jvmArgs("-Dspring.output.ansi.enabled=ALWAYS")
 }
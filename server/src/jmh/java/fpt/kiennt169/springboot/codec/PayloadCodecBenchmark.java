@@ -0,0 +1,138 @@
+package fpt.kiennt169.springboot.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import fpt.kiennt169.springboot.dtos.answers.AnswerResponseDTO;
+import fpt.kiennt169.springboot.dtos.questions.QuestionResponseDTO;
+import fpt.kiennt169.springboot.dtos.quizzes.QuizDetailResponseDTO;
+import fpt.kiennt169.springboot.entities.RefreshToken;
+import fpt.kiennt169.springboot.enums.QuestionTypeEnum;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload size and encode/decode time of the Redis codecs for the two hottest values:
+ * a cached {@link QuizDetailResponseDTO} and a {@link RefreshToken}.
+ *
+ * {@code LEGACY_JSON} is the typed JSON serializer the cache used before the codec layer.
+ * {@link Sizes} reports the encoded bytes next to the timing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadCodecBenchmark {
+
+    @Param({"LEGACY_JSON", "JSON", "SMILE", "SMILE_LZ4"})
+    public String codec;
+
+    @Param({"QUIZ_DETAIL", "REFRESH_TOKEN"})
+    public String payload;
+
+    /**
+     * Encoded bytes per call, summed over each iteration; divide by {@code calls} for the size
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+        public long calls;
+        public long encodedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            calls = 0;
+            encodedBytes = 0;
+        }
+    }
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = switch (codec) {
+            case "LEGACY_JSON" -> new GenericJackson2JsonRedisSerializer(PayloadCodec.typedMapper(new JsonFactory()));
+            case "JSON" -> framed(PayloadFormat.JSON, 0);
+            case "SMILE" -> framed(PayloadFormat.SMILE, 0);
+            case "SMILE_LZ4" -> framed(PayloadFormat.SMILE, 512);
+            default -> throw new IllegalArgumentException(codec);
+        };
+        value = "QUIZ_DETAIL".equals(payload) ? quizDetail(20, 4) : refreshToken();
+        encoded = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize(Sizes sizes) {
+        byte[] bytes = serializer.serialize(value);
+        sizes.calls++;
+        sizes.encodedBytes += bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(encoded);
+    }
+
+    private static RedisSerializer<Object> framed(PayloadFormat format, int threshold) {
+        return new CodecRedisSerializer(new PayloadCodec(format, threshold), RedisSerializer.java(), false);
+    }
+
+    private static QuizDetailResponseDTO quizDetail(int questionCount, int answersPerQuestion) {
+        List<QuestionResponseDTO> questions = new ArrayList<>();
+        for (int q = 0; q < questionCount; q++) {
+            List<AnswerResponseDTO> answers = new ArrayList<>();
+            for (int a = 0; a < answersPerQuestion; a++) {
+                answers.add(new AnswerResponseDTO(UUID.randomUUID(), "Answer option " + a + " for question " + q, a == 0));
+            }
+            questions.add(new QuestionResponseDTO(UUID.randomUUID(), "Which statement about Java feature #" + q + " is true?",
+                q % 2 == 0 ? QuestionTypeEnum.SINGLE_CHOICE : QuestionTypeEnum.MULTIPLE_CHOICE, 10, List.of(), answers));
+        }
+        return QuizDetailResponseDTO.builder()
+            .id(UUID.randomUUID())
+            .title("Java Programming Basics")
+            .description("Test your knowledge of Java fundamentals")
+            .durationMinutes(60)
+            .active(true)
+            .questions(questions)
+            .createdAt(LocalDateTime.now())
+            .updatedAt(LocalDateTime.now())
+            .build();
+    }
+
+    private static RefreshToken refreshToken() {
+        Instant now = Instant.now();
+        return RefreshToken.builder()
+            .token(UUID.randomUUID() + "." + UUID.randomUUID())
+            .userId(UUID.randomUUID())
+            .email("rex@dinoquiz.academy")
+            .roles(Set.of("ROLE_USER"))
+            .createdAt(now)
+            .expiresAt(now.plus(7, ChronoUnit.DAYS))
+            .build();
+    }
+}
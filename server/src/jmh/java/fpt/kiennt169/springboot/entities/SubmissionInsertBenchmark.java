@@ -0,0 +1,219 @@
+package fpt.kiennt169.springboot.entities;
+
+import fpt.kiennt169.springboot.enums.QuestionTypeEnum;
+import fpt.kiennt169.springboot.repositories.QuestionRepository;
+import fpt.kiennt169.springboot.util.UuidV7Util;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to insert 1M quiz submissions in JDBC batches, with random (v4) or
+ * time-ordered (v7) primary keys, into the table and indexes Hibernate creates, on H2.
+ *
+ * Random keys land anywhere in the primary key index, so it keeps splitting pages
+ * across the whole tree; time-ordered keys always append to its right edge.
+ * {@link #saveQuestion} saves one question with four answers through the repository;
+ * its {@link Batching} counters show that Hibernate batches the inserts per table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class SubmissionInsertBenchmark {
+
+    private static final int SUBMISSIONS = 1_000_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final String INSERT_SUBMISSION_SQL =
+            "INSERT INTO quiz_submissions (id, score, submission_time, user_id, quiz_id, created_at, is_deleted) "
+            + "VALUES (?, ?, ?, ?, ?, ?, false)";
+
+    @Param({"V4", "V7"})
+    public String idVersion;
+
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private SingleConnectionDataSource dataSource;
+    private UUID userId;
+    private UUID quizId;
+    private Statistics statistics;
+    private QuestionRepository questionRepository;
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Totals over each iteration; divide by {@code saves} for the values per question
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Batching {
+        public long saves;
+        public long statements;
+        public long entitiesInserted;
+        public long timeOrderedIds;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            saves = 0;
+            statements = 0;
+            entitiesInserted = 0;
+            timeOrderedIds = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:submissions;DB_CLOSE_DELAY=-1", true);
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(new DriverManagerDataSource("jdbc:h2:mem:submissions;DB_CLOSE_DELAY=-1"));
+        factoryBean.setPackagesToScan("fpt.kiennt169.springboot.entities");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create",
+                "hibernate.generate_statistics", "true",
+                "hibernate.jdbc.batch_size", "50",
+                "hibernate.order_inserts", "true",
+                "hibernate.order_updates", "true"));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setEmail("taker@example.com");
+            user.setUsername("taker");
+            user.setPassword("{noop}taker");
+            user.setFirstName("Exam");
+            user.setLastName("Taker");
+            user.setFullName("Exam Taker");
+            user.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(user);
+
+            Quiz quiz = new Quiz();
+            quiz.setTitle("Benchmark quiz");
+            quiz.setDurationMinutes(30);
+            quiz.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(quiz);
+
+            userId = user.getId();
+            quizId = quiz.getId();
+        });
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        questionRepository = new JpaRepositoryFactory(entityManager).getRepository(QuestionRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() {
+        new JdbcTemplate(dataSource).execute("TRUNCATE TABLE quiz_submissions");
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+        factoryBean.destroy();
+    }
+
+    @Benchmark
+    public int insertSubmissions() throws SQLException {
+        boolean timeOrdered = "V7".equals(idVersion);
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SUBMISSION_SQL)) {
+            for (int i = 0; i < SUBMISSIONS; i++) {
+                statement.setObject(1, timeOrdered
+                        ? UuidV7Util.generate()
+                        : UUID.randomUUID());
+                statement.setDouble(2, i % 100);
+                statement.setTimestamp(3, now);
+                statement.setObject(4, userId);
+                statement.setObject(5, quizId);
+                statement.setTimestamp(6, now);
+                statement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        connection.setAutoCommit(true);
+        return SUBMISSIONS;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 1, time = 1)
+    @Measurement(iterations = 3, time = 1)
+    public Question saveQuestion(Batching batching) {
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long insertsBefore = statistics.getEntityInsertCount();
+        Question question = transactionTemplate.execute(status -> questionRepository.save(questionWithAnswers(4)));
+        batching.saves++;
+        batching.statements += statistics.getPrepareStatementCount() - statementsBefore;
+        batching.entitiesInserted += statistics.getEntityInsertCount() - insertsBefore;
+        if (question.getId().version() == 7) {
+            batching.timeOrderedIds++;
+        }
+        return question;
+    }
+
+    private static Question questionWithAnswers(int answers) {
+        Question question = new Question();
+        question.setContent("Which keyword declares a constant in Java?");
+        question.setType(QuestionTypeEnum.SINGLE_CHOICE);
+        question.setScore(1);
+        question.setCreatedAt(LocalDateTime.now());
+
+        Set<Answer> choices = new HashSet<>();
+        for (int i = 0; i < answers; i++) {
+            Answer answer = new Answer();
+            answer.setContent("Choice " + i);
+            answer.setIsCorrect(i == 0);
+            answer.setQuestion(question);
+            answer.setCreatedAt(LocalDateTime.now());
+            choices.add(answer);
+        }
+        question.setAnswers(choices);
+        return question;
+    }
+}
@@ -0,0 +1,182 @@
+package fpt.kiennt169.springboot.pagination;
+
+import fpt.kiennt169.springboot.dtos.quizzes.QuizResponseDTO;
+import fpt.kiennt169.springboot.dtos.quizzes.QuizSummaryRow;
+import fpt.kiennt169.springboot.entities.Quiz;
+import fpt.kiennt169.springboot.mappers.QuizMapper;
+import fpt.kiennt169.springboot.repositories.QuizRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of the quiz list, over 2,000 quizzes with 25 questions each, on in-memory H2.
+ *
+ * {@code ENTITY} is the previous read: quiz entities mapped one by one, where the
+ * question count initializes each quiz's question collection. {@code PROJECTION} reads
+ * {@link QuizSummaryRow}s with the count done in SQL. {@link Counters} report the SQL
+ * statements run and questions counted next to the pages read; for projections the
+ * statements per page do not grow with the page size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuizListingBenchmark {
+
+    private static final int QUIZZES = 2_000;
+    private static final int QUESTIONS_PER_QUIZ = 25;
+    private static final int QUESTIONS = 10_000;
+
+    @Param({"ENTITY", "PROJECTION"})
+    public String mode;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private TransactionTemplate transactionTemplate;
+    private QuizRepository quizRepository;
+    private TwoPhasePager pager;
+    private Statistics statistics;
+    private Pageable pageable;
+
+    private final QuizMapper quizMapper = Mappers.getMapper(QuizMapper.class);
+
+    /**
+     * Totals over the measurement iterations; divide by {@code pages} for per-page values
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long pages;
+        public long statements;
+        public long questionsCounted;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            pages = 0;
+            statements = 0;
+            questionsCounted = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:listing;DB_CLOSE_DELAY=-1");
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("fpt.kiennt169.springboot.entities");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create",
+                "hibernate.generate_statistics", "true"));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        seed(new JdbcTemplate(dataSource));
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        quizRepository = new JpaRepositoryFactory(entityManager).getRepository(QuizRepository.class);
+        pager = new TwoPhasePager();
+        pager.setEntityManager(entityManager);
+
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        transactionTemplate.setReadOnly(true);
+        pageable = PageRequest.of(3, pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        factoryBean.destroy();
+    }
+
+    @Benchmark
+    public List<QuizResponseDTO> page(Counters counters) {
+        long before = statistics.getPrepareStatementCount();
+        List<QuizResponseDTO> page = read();
+        counters.pages++;
+        counters.statements += statistics.getPrepareStatementCount() - before;
+        counters.questionsCounted += page.stream().mapToInt(QuizResponseDTO::getTotalQuestions).sum();
+        return page;
+    }
+
+    private List<QuizResponseDTO> read() {
+        return transactionTemplate.execute(status -> {
+            if ("ENTITY".equals(mode)) {
+                return quizRepository.findAll(pageable).map(quizMapper::toResponseDTO).getContent();
+            }
+            Page<QuizSummaryRow> rows = pager.page(Quiz.class, null, pageable,
+                    quizRepository::findSummariesByIdIn, QuizSummaryRow::id);
+            return rows.map(QuizSummaryRow::toResponseDTO).getContent();
+        });
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        List<Object[]> questions = new ArrayList<>(QUESTIONS);
+        List<UUID> questionIds = new ArrayList<>(QUESTIONS);
+        for (int i = 0; i < QUESTIONS; i++) {
+            UUID questionId = UUID.randomUUID();
+            questionIds.add(questionId);
+            questions.add(new Object[] {questionId, "Question " + i, "SINGLE_CHOICE", 1,
+                    Timestamp.valueOf(start.plusSeconds(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO questions (id, content, type, score, created_at, is_deleted) "
+                + "VALUES (?, ?, ?, ?, ?, false)", questions);
+
+        List<Object[]> quizzes = new ArrayList<>(QUIZZES);
+        List<Object[]> links = new ArrayList<>(QUIZZES * QUESTIONS_PER_QUIZ);
+        for (int i = 0; i < QUIZZES; i++) {
+            UUID quizId = UUID.randomUUID();
+            quizzes.add(new Object[] {quizId, "Quiz " + i, "Description of quiz " + i, 30, true,
+                    Timestamp.valueOf(start.plusSeconds(i))});
+            for (int q = 0; q < QUESTIONS_PER_QUIZ; q++) {
+                links.add(new Object[] {quizId, questionIds.get((i * QUESTIONS_PER_QUIZ + q) % QUESTIONS)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO quizzes (id, title, description, duration_minutes, active, "
+                + "created_at, is_deleted) VALUES (?, ?, ?, ?, ?, ?, false)", quizzes);
+        jdbcTemplate.batchUpdate("INSERT INTO quiz_questions (quiz_id, question_id) VALUES (?, ?)", links);
+    }
+}
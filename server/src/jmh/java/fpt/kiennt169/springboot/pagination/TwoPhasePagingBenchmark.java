@@ -0,0 +1,166 @@
+package fpt.kiennt169.springboot.pagination;
+
+import fpt.kiennt169.springboot.entities.Question;
+import fpt.kiennt169.springboot.enums.QuestionTypeEnum;
+import fpt.kiennt169.springboot.repositories.QuestionRepository;
+import fpt.kiennt169.springboot.specifications.QuestionSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of a question search that matches {@code matching} of 100k seeded questions
+ * (4 answers each), on in-memory H2.
+ *
+ * {@code IN_MEMORY} is the previous repository method: a specification page with an
+ * entity graph on {@code answers}, which Hibernate pages in memory. {@code TWO_PHASE} is
+ * {@link TwoPhasePager}. Run with {@code -Pjmh.profilers=gc}: {@code gc.alloc.rate.norm}
+ * is the bytes allocated per page. With two-phase paging both time and allocation stay
+ * flat as {@code matching} grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TwoPhasePagingBenchmark {
+
+    private static final int QUESTIONS = 100_000;
+    private static final int ANSWERS_PER_QUESTION = 4;
+    private static final int BATCH_SIZE = 5_000;
+
+    @Param({"IN_MEMORY", "TWO_PHASE"})
+    public String mode;
+
+    @Param({"1000", "10000", "100000"})
+    public int matching;
+
+    /**
+     * The question repository as it was before two-phase paging.
+     */
+    public interface LegacyQuestionRepository
+            extends JpaRepository<Question, UUID>, JpaSpecificationExecutor<Question> {
+
+        @Override
+        @EntityGraph(attributePaths = {"answers"})
+        Page<Question> findAll(Specification<Question> spec, Pageable pageable);
+    }
+
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private TransactionTemplate transactionTemplate;
+    private LegacyQuestionRepository legacyRepository;
+    private QuestionRepository questionRepository;
+    private TwoPhasePager pager;
+
+    private final Specification<Question> spec = QuestionSpecification.hasType(QuestionTypeEnum.SINGLE_CHOICE);
+    private final Pageable pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:paging;DB_CLOSE_DELAY=-1");
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("fpt.kiennt169.springboot.entities");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create"));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+
+        seed(new JdbcTemplate(dataSource));
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        legacyRepository = repositoryFactory.getRepository(LegacyQuestionRepository.class);
+        questionRepository = repositoryFactory.getRepository(QuestionRepository.class);
+        pager = new TwoPhasePager();
+        pager.setEntityManager(entityManager);
+
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        factoryBean.destroy();
+    }
+
+    @Benchmark
+    public List<Integer> page() {
+        return transactionTemplate.execute(status -> {
+            Page<Question> page = "IN_MEMORY".equals(mode)
+                    ? legacyRepository.findAll(spec, pageable)
+                    : pager.page(Question.class, spec, pageable, questionRepository::findByIdIn, Question::getId);
+            return page.getContent().stream().map(question -> question.getAnswers().size()).toList();
+        });
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        List<Object[]> questions = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> answers = new ArrayList<>(BATCH_SIZE * ANSWERS_PER_QUESTION);
+        for (int i = 0; i < QUESTIONS; i++) {
+            UUID questionId = UUID.randomUUID();
+            Timestamp createdAt = Timestamp.valueOf(start.plusSeconds(i));
+            QuestionTypeEnum type = i % (QUESTIONS / matching) == 0
+                    ? QuestionTypeEnum.SINGLE_CHOICE
+                    : QuestionTypeEnum.MULTIPLE_CHOICE;
+            questions.add(new Object[] {questionId, "Question " + i, type.name(), 1, createdAt});
+            for (int a = 0; a < ANSWERS_PER_QUESTION; a++) {
+                answers.add(new Object[] {UUID.randomUUID(), "Answer " + a + " of question " + i, a == 0, questionId, createdAt});
+            }
+            if (questions.size() == BATCH_SIZE) {
+                flush(jdbcTemplate, questions, answers);
+            }
+        }
+        flush(jdbcTemplate, questions, answers);
+
+        // Lets the database serve the sorted page from an index, so only the paging strategy is compared
+        jdbcTemplate.execute("CREATE INDEX idx_question_type_created_at ON questions (type, created_at DESC)");
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, List<Object[]> questions, List<Object[]> answers) {
+        jdbcTemplate.batchUpdate("INSERT INTO questions (id, content, type, score, created_at, is_deleted) "
+                + "VALUES (?, ?, ?, ?, ?, false)", questions);
+        jdbcTemplate.batchUpdate("INSERT INTO answers (id, content, is_correct, question_id, created_at, is_deleted) "
+                + "VALUES (?, ?, ?, ?, ?, false)", answers);
+        questions.clear();
+        answers.clear();
+    }
+}
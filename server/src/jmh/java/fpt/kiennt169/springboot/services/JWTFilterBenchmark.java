@@ -0,0 +1,165 @@
+package fpt.kiennt169.springboot.services;
+
+import fpt.kiennt169.springboot.config.JWTFilter;
+import fpt.kiennt169.springboot.constants.Constants;
+import fpt.kiennt169.springboot.entities.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Throughput of {@link JWTFilter} on authenticated requests.
+ *
+ * {@code LEGACY} reproduces the token service before the fast path: a new key and
+ * parser, full verification and fresh authorities on every request. {@code FAST} is
+ * the current {@link TokenServiceImpl}. Requests pick from a pool of valid tokens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTFilterBenchmark {
+
+    @Param({"LEGACY", "FAST"})
+    public String tokenService;
+
+    @Param({"64"})
+    public int distinctTokens;
+
+    private JWTFilter filter;
+    private String[] headers;
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        byte[] secretBytes = new byte[64];
+        new SecureRandom().nextBytes(secretBytes);
+        String secret = Base64.getEncoder().encodeToString(secretBytes);
+
+        TokenServiceImpl fast = new TokenServiceImpl(new TokenRevocationService() {
+            @Override
+            public void revokeToken(String jti, long expiresAtMillis) {
+            }
+
+            @Override
+            public void revokeUser(UUID userId) {
+            }
+
+            @Override
+            public boolean isRevoked(String jti, String subject, long issuedAtMillis) {
+                return false;
+            }
+        });
+        fast.configure(secret, TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(7), 10_000L);
+
+        headers = new String[distinctTokens];
+        for (int i = 0; i < distinctTokens; i++) {
+            User user = new User();
+            user.setId(UUID.randomUUID());
+            user.setEmail("user" + i + "@example.com");
+            Set<String> roles = i % 8 == 0 ? Set.of("ROLE_ADMIN", "ROLE_USER") : Set.of("ROLE_USER");
+            headers[i] = Constants.TOKEN_PREFIX + fast.generateToken(user, roles);
+        }
+
+        filter = new JWTFilter("FAST".equals(tokenService) ? fast : new LegacyTokenService(secret));
+    }
+
+    @Benchmark
+    public Authentication authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/quizzes");
+        request.setServletPath("/api/v1/quizzes");
+        request.addHeader(Constants.AUTHORIZATION_HEADER,
+                headers[ThreadLocalRandom.current().nextInt(headers.length)]);
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    /**
+     * Token verification as it was before the fast path.
+     */
+    private static final class LegacyTokenService implements TokenService {
+
+        private final String jwtSecret;
+
+        LegacyTokenService(String jwtSecret) {
+            this.jwtSecret = jwtSecret;
+        }
+
+        @Override
+        public String generateToken(User user, Set<String> roles) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String generateToken(UUID userId, String email, Set<String> roles) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String generateRefreshToken() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Authentication getAuthenticationFromToken(String token) {
+            Claims claims = Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+
+            String email = claims.get("username", String.class);
+
+            @SuppressWarnings("unchecked")
+            List<String> roles = claims.get("roles", List.class);
+
+            Set<GrantedAuthority> authorities = roles.stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toSet());
+
+            org.springframework.security.core.userdetails.User principal =
+                    new org.springframework.security.core.userdetails.User(email, "", authorities);
+            return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        }
+
+        @Override
+        public void revokeAccessToken(String token) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package fpt.kiennt169.springboot.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tag-based invalidation for cache entries that embed other entities.
+ *
+ * A cached entry registers the tags of everything it contains (e.g. the questions and
+ * answers of a quiz) in Redis sets {@code cache:deps:{tag}} whose members are the
+ * entries' Redis keys. Mutating an entity then evicts exactly the entries that carry
+ * its tags, so embedding caches stay correct without relying on short TTLs.
+ *
+ * Tag sets expire after {@code cache.dependencies.tag-ttl}, which must be longer than
+ * the TTL of any entry that registers tags.
+ */
+@Slf4j
+@Component
+public class CacheDependencyTracker {
+
+    private static final String TAG_PREFIX = "cache:deps:";
+    private static final String KEY_SEPARATOR = "::";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheManager cacheManager;
+    private final Duration tagTtl;
+    private final Counter evictedEntries;
+
+    public CacheDependencyTracker(StringRedisTemplate stringRedisTemplate, CacheManager cacheManager,
+                                  @Value("${cache.dependencies.tag-ttl:2h}") Duration tagTtl,
+                                  MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cacheManager = cacheManager;
+        this.tagTtl = tagTtl;
+        this.evictedEntries = Counter.builder("cache.dependencies.evictions")
+                .description("Cache entries evicted because an embedded entity changed")
+                .register(meterRegistry);
+    }
+
+    public static String questionTag(UUID questionId) {
+        return "question:" + questionId;
+    }
+
+    public static String answerTag(UUID answerId) {
+        return "answer:" + answerId;
+    }
+
+    /**
+     * Record that a cache entry depends on the given tags. Call from the method that
+     * computes the entry, so every (re)load refreshes the registration.
+     *
+     * @param cacheName the cache name
+     * @param key the cache key
+     * @param tags tags of the entities embedded in the entry
+     */
+    public void register(String cacheName, String key, Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        String entryKey = CacheKeyPrefix.simple().compute(cacheName) + key;
+        long ttlSeconds = tagTtl.toSeconds();
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (String tag : tags) {
+                    redis.sAdd(TAG_PREFIX + tag, entryKey);
+                    redis.expire(TAG_PREFIX + tag, ttlSeconds);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to register cache dependencies of {}: {}", entryKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Evict every cache entry that registered one of the given tags.
+     * Deferred until after commit when called inside a transaction, so entries loaded
+     * before the commit cannot survive it.
+     *
+     * @param tags tags of the changed entities
+     */
+    public void evictDependents(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        Set<String> tagKeys = new LinkedHashSet<>();
+        tags.forEach(tag -> tagKeys.add(TAG_PREFIX + tag));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(tagKeys);
+                }
+            });
+        } else {
+            doEvict(tagKeys);
+        }
+    }
+
+    private void doEvict(Set<String> tagKeys) {
+        try {
+            List<Object> members = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                tagKeys.forEach(redis::sMembers);
+                return null;
+            });
+
+            Set<String> entryKeys = new LinkedHashSet<>();
+            for (Object tagMembers : members) {
+                if (tagMembers instanceof Collection<?> keys) {
+                    keys.forEach(entryKey -> entryKeys.add((String) entryKey));
+                }
+            }
+
+            List<String> toDelete = new ArrayList<>();
+            for (String entryKey : entryKeys) {
+                toDelete.add(entryKey + TwoLevelCache.VALIDATOR_SUFFIX);
+                toDelete.add(entryKey);
+            }
+            toDelete.addAll(tagKeys);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                ((StringRedisConnection) connection).del(toDelete.toArray(String[]::new));
+                return null;
+            });
+
+            entryKeys.forEach(this::dropLocal);
+            evictedEntries.increment(entryKeys.size());
+            log.debug("Evicted {} cache entries depending on {}", entryKeys.size(), tagKeys);
+        } catch (Exception e) {
+            log.warn("Failed to evict cache entries depending on {}: {}", tagKeys, e.getMessage());
+        }
+    }
+
+    private void dropLocal(String entryKey) {
+        int separator = entryKey.indexOf(KEY_SEPARATOR);
+        if (separator < 0) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(entryKey.substring(0, separator));
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.dropLocal(entryKey.substring(separator + KEY_SEPARATOR.length()));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package fpt.kiennt169.springboot.cache;
+
+/**
+ * Broadcasts local-cache invalidations to peer nodes.
+ */
+@FunctionalInterface
+public interface CacheInvalidationPublisher {
+
+    /**
+     * @param cacheName the cache name
+     * @param key the evicted key, or null when the whole cache was cleared
+     */
+    void publish(String cacheName, String key);
+}
@@ -0,0 +1,29 @@
+package fpt.kiennt169.springboot.cache;
+
+import java.time.Duration;
+
+/**
+ * How a cache protects its loader against stampedes.
+ *
+ * Concurrent misses for one key on one node always share a single load. With a
+ * {@code lockLease}, nodes also elect one loader per key through a Redisson lock; the
+ * others wait up to {@code lockWait} for its result before loading themselves. With a
+ * positive {@code earlyRefreshBeta}, hits recompute the entry in the background before
+ * it expires (XFetch), refreshing more eagerly for larger beta and slower loads.
+ *
+ * @param lockWait how long a node waits for another node's load
+ * @param lockLease lease of the cross-node load lock, or null for no cross-node lock
+ * @param earlyRefreshBeta XFetch beta, or 0 to disable early refresh
+ */
+public record CacheLoadPolicy(Duration lockWait, Duration lockLease, double earlyRefreshBeta) {
+
+    public static final CacheLoadPolicy LOCAL_ONLY = new CacheLoadPolicy(Duration.ZERO, null, 0.0);
+
+    public boolean usesLock() {
+        return lockLease != null;
+    }
+
+    public boolean refreshesEarly() {
+        return earlyRefreshBeta > 0.0;
+    }
+}
@@ -0,0 +1,50 @@
+package fpt.kiennt169.springboot.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import fpt.kiennt169.springboot.util.ContentHashUtil;
+
+/**
+ * HTTP validators of a cached representation: a strong ETag (content hash of the
+ * value) and the time the value was computed, used as Last-Modified.
+ *
+ * Every change evicts the cached value, so the next load gets a later timestamp and,
+ * for changed content, a different ETag.
+ *
+ * @param etag unquoted strong entity tag
+ * @param lastModified epoch millis, or -1 if unknown
+ */
+public record CacheValidator(String etag, long lastModified) {
+
+    private static final char SEPARATOR = ':';
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Compute the validators of a value
+     *
+     * @param value the representation
+     * @param lastModified epoch millis, or -1 if unknown
+     * @return the validators
+     */
+    public static CacheValidator of(Object value, long lastModified) {
+        try {
+            return new CacheValidator(ContentHashUtil.hash(MAPPER.writeValueAsString(value)), lastModified);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot hash value of type " + value.getClass().getName(), e);
+        }
+    }
+
+    String encode() {
+        return String.valueOf(lastModified) + SEPARATOR + etag;
+    }
+
+    static CacheValidator decode(String encoded) {
+        int separator = encoded.indexOf(SEPARATOR);
+        return new CacheValidator(encoded.substring(separator + 1), Long.parseLong(encoded.substring(0, separator)));
+    }
+}
@@ -0,0 +1,107 @@
+package fpt.kiennt169.springboot.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GET support for cached read endpoints.
+ *
+ * {@link #notModified} answers {@code If-None-Match} / {@code If-Modified-Since} from
+ * the validators stored next to a cached value, before the value is read or the
+ * database is touched. {@link #validatorFor} supplies the validators for a full
+ * response; its ETag is always the hash of the body being served, because the stored
+ * validator may already describe a newer value than the one that was read.
+ */
+@Slf4j
+@Component
+public class CacheValidators {
+
+    private final CacheManager cacheManager;
+    private final Counter notModified;
+    private final Counter loaded;
+
+    public CacheValidators(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.notModified = requests(meterRegistry, "not_modified");
+        this.loaded = requests(meterRegistry, "loaded");
+    }
+
+    /**
+     * Check the request preconditions against the stored validators of a cache entry.
+     * When this returns true the 304 response is complete and the handler returns null.
+     *
+     * @param request the current request
+     * @param cacheName the cache holding the representation
+     * @param key its cache key
+     * @return true if the client's copy is current
+     */
+    public boolean notModified(WebRequest request, String cacheName, Object key) {
+        CacheValidator validator = stored(cacheName, key);
+        if (validator != null && request.checkNotModified(validator.etag(), validator.lastModified())) {
+            notModified.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Validators for a full response
+     *
+     * @param cacheName the cache holding the representation, or null if it is not cached
+     * @param key its cache key
+     * @param body the response body
+     * @return validators computed from the body, with the stored Last-Modified if the
+     *         stored validators describe this body
+     */
+    public CacheValidator validatorFor(String cacheName, Object key, Object body) {
+        loaded.increment();
+        CacheValidator computed = CacheValidator.of(body, -1);
+        CacheValidator validator = cacheName != null ? stored(cacheName, key) : null;
+        return validator != null && validator.etag().equals(computed.etag()) ? validator : computed;
+    }
+
+    /**
+     * Start a 200 response carrying the validators. Spring still answers with 304 when
+     * they match the request, which covers representations without stored validators.
+     *
+     * @param validator the validators
+     * @return the response builder
+     */
+    public ResponseEntity.BodyBuilder ok(CacheValidator validator) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(validator.etag());
+        if (validator.lastModified() > 0) {
+            builder.lastModified(validator.lastModified());
+        }
+        return builder;
+    }
+
+    private CacheValidator stored(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        if (!(cache instanceof TwoLevelCache twoLevelCache)) {
+            return null;
+        }
+        try {
+            return twoLevelCache.validator(key);
+        } catch (RuntimeException e) {
+            log.warn("Cache validators unavailable for {}::{}: {}", cacheName, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.validators.requests")
+                .description("Validated reads answered from stored validators alone or after loading the body")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,18 @@
+package fpt.kiennt169.springboot.cache;
+
+import fpt.kiennt169.springboot.dtos.PageResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cache holder for a {@link PageResponseDTO}. The page is a record, which the typed
+ * cache serializer cannot restore at the root, so it is stored as a typed field.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedPage {
+
+    private PageResponseDTO<?> page;
+}
@@ -0,0 +1,19 @@
+package fpt.kiennt169.springboot.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cache entry wrapper carrying what XFetch early refresh needs: how long the value
+ * took to compute and when the entry expires.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedValue {
+
+    private Object value;
+    private long computeMillis;
+    private long expiresAtMillis;
+}
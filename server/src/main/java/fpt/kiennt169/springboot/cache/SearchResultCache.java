@@ -0,0 +1,181 @@
+package fpt.kiennt169.springboot.cache;
+
+import fpt.kiennt169.springboot.config.SearchCacheProperties;
+import fpt.kiennt169.springboot.dtos.PageResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache for paged search results, versioned by a per-entity generation counter.
+ *
+ * Keys combine the entity, its current generation, the normalized filters and the
+ * page request. Any mutation of the entity increments the generation in Redis, so all
+ * of its cached pages become unreachable at once and expire on their own TTL.
+ */
+@Slf4j
+@Component
+public class SearchResultCache {
+
+    public static final String CACHE_NAME = "searches";
+
+    private static final String GENERATION_PREFIX = "cache:gen:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheManager cacheManager;
+    private final SearchCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, EntityStats> stats = new ConcurrentHashMap<>();
+
+    public SearchResultCache(StringRedisTemplate stringRedisTemplate, CacheManager cacheManager,
+                             SearchCacheProperties properties, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Clamp a page request to the configured maximum page size.
+     *
+     * @param pageable the requested page
+     * @return the page request to execute
+     */
+    public Pageable capPageSize(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getPageSize() > properties.getMaxPageSize()) {
+            return PageRequest.of(pageable.getPageNumber(), properties.getMaxPageSize(), pageable.getSort());
+        }
+        return pageable;
+    }
+
+    /**
+     * Get a search result page, running the query on a miss.
+     *
+     * @param entity the searched entity, e.g. "quiz"
+     * @param pageable the page request, already capped
+     * @param loader runs the search
+     * @param filters the search filters; text filters are trimmed and lower-cased
+     * @return the result page
+     */
+    @SuppressWarnings("unchecked")
+    public <T> PageResponseDTO<T> get(String entity, Pageable pageable,
+                                      Supplier<PageResponseDTO<T>> loader, Object... filters) {
+        Cache cache = properties.isEnabled() ? cacheManager.getCache(CACHE_NAME) : null;
+        if (cache == null) {
+            return loader.get();
+        }
+
+        String key;
+        try {
+            key = entity + ":g" + generation(entity) + ":" + normalize(filters) + ":" + pageKey(pageable);
+        } catch (Exception e) {
+            log.warn("Search cache unavailable for {}: {}", entity, e.getMessage());
+            return loader.get();
+        }
+
+        EntityStats entityStats = stats.computeIfAbsent(entity, this::registerStats);
+        boolean[] loaded = new boolean[1];
+        CachedPage cached = cache.get(key, () -> {
+            loaded[0] = true;
+            return new CachedPage(loader.get());
+        });
+        (loaded[0] ? entityStats.misses : entityStats.hits).increment();
+        return (PageResponseDTO<T>) cached.getPage();
+    }
+
+    /**
+     * Invalidate every cached search page of an entity.
+     * Deferred until after commit when called inside a transaction.
+     *
+     * @param entity the mutated entity, e.g. "quiz"
+     */
+    public void invalidate(String entity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpGeneration(entity);
+                }
+            });
+        } else {
+            bumpGeneration(entity);
+        }
+    }
+
+    private void bumpGeneration(String entity) {
+        try {
+            stringRedisTemplate.opsForValue().increment(GENERATION_PREFIX + entity);
+        } catch (Exception e) {
+            log.warn("Failed to invalidate search cache for {}: {}", entity, e.getMessage());
+        }
+    }
+
+    private String generation(String entity) {
+        String generation = stringRedisTemplate.opsForValue().get(GENERATION_PREFIX + entity);
+        return generation != null ? generation : "0";
+    }
+
+    private static String normalize(Object... filters) {
+        StringBuilder key = new StringBuilder();
+        for (Object filter : filters) {
+            if (!key.isEmpty()) {
+                key.append('|');
+            }
+            if (filter instanceof String text) {
+                key.append(text.isBlank() ? "" : text.trim().toLowerCase(Locale.ROOT));
+            } else if (filter != null) {
+                key.append(filter);
+            }
+        }
+        return key.toString();
+    }
+
+    private static String pageKey(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return "all:" + pageable.getSort();
+        }
+        return pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+    }
+
+    private EntityStats registerStats(String entity) {
+        EntityStats entityStats = new EntityStats(
+                requests(entity, "hit"),
+                requests(entity, "miss"));
+        Gauge.builder("cache.search.hit.ratio", entityStats, EntityStats::hitRatio)
+                .description("Share of search requests served from the cache")
+                .tag("entity", entity)
+                .register(meterRegistry);
+        return entityStats;
+    }
+
+    private Counter requests(String entity, String result) {
+        return Counter.builder("cache.search.requests")
+                .description("Paged search requests by cache result")
+                .tag("entity", entity)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record EntityStats(Counter hits, Counter misses) {
+
+        double hitRatio() {
+            double total = hits.count() + misses.count();
+            return total == 0 ? 0.0 : hits.count() / total;
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package fpt.kiennt169.springboot.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Cache} that reads through a bounded in-process cache (L1) before the shared
+ * Redis cache (L2).
+ *
+ * Writes and evictions go to L2 first, then drop the local entry and tell peer nodes
+ * to drop theirs. L1 entries also expire after a short TTL, which bounds how long a
+ * node can serve a value that a lost invalidation message failed to remove. Values
+ * are shared between callers, so cached DTOs must not be mutated.
+ *
+ * Loads through {@link #get(Object, Callable)} (i.e. {@code @Cacheable(sync = true)})
+ * follow the cache's {@link CacheLoadPolicy}.
+ *
+ * Validated caches also keep a {@link CacheValidator} next to every value, under the
+ * value's key plus {@value #VALIDATOR_SUFFIX}. It is written before the value and
+ * removed before it, so an eviction that lands between the two writes (e.g. from
+ * {@link CacheDependencyTracker}) can leave a value without a validator, which is just
+ * answered in full, but never a validator that outlives its value. Conditional requests
+ * can then be answered without reading the value itself.
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+
+    static final String VALIDATOR_SUFFIX = "::validator";
+
+    private static final String LOCK_PREFIX = "cache:load:";
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationPublisher publisher;
+    private final CacheLoadPolicy loadPolicy;
+    private final boolean validated;
+    private final RedissonClient redissonClient;
+    private final Executor refreshExecutor;
+    private final TransactionTemplate refreshTransaction;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    /** Early refreshes are tracked apart from misses: a refresh may skip loading, which a miss must not see. */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter missLoads;
+    private final Counter earlyRefreshes;
+    private final Counter coalescedLoads;
+
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remote,
+                         CacheInvalidationPublisher publisher, CacheLoadPolicy loadPolicy, boolean validated,
+                         RedissonClient redissonClient, Executor refreshExecutor,
+                         TransactionTemplate refreshTransaction, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+        this.loadPolicy = loadPolicy;
+        this.validated = validated;
+        this.redissonClient = redissonClient;
+        this.refreshExecutor = refreshExecutor;
+        this.refreshTransaction = refreshTransaction;
+        this.l1Hits = gets(meterRegistry, "l1", "hit");
+        this.l1Misses = gets(meterRegistry, "l1", "miss");
+        this.l2Hits = gets(meterRegistry, "l2", "hit");
+        this.l2Misses = gets(meterRegistry, "l2", "miss");
+        this.missLoads = loads(meterRegistry, "miss");
+        this.earlyRefreshes = loads(meterRegistry, "early_refresh");
+        this.coalescedLoads = Counter.builder("cache.level.loads.coalesced")
+                .description("Misses that waited for a load already running on this node")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object entry = lookup(key, localKey(key));
+        return entry != null ? new SimpleValueWrapper(unwrap(entry)) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object entry = lookup(key, localKey);
+        if (entry != null) {
+            refreshIfDue(key, localKey, entry, valueLoader);
+            return (T) unwrap(entry);
+        }
+        return (T) unwrap(loadShared(key, localKey, valueLoader));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        if (value == null) {
+            evictValidator(localKey);
+        } else {
+            storeValidator(localKey, value, System.currentTimeMillis());
+        }
+        remote.put(key, value);
+        if (value != null) {
+            local.put(localKey, value);
+        } else {
+            local.invalidate(localKey);
+        }
+        publisher.publish(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String localKey = localKey(key);
+        evictValidator(localKey);
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.invalidate(localKey);
+        publisher.publish(name, localKey);
+        return existing != null ? new SimpleValueWrapper(unwrap(existing.get())) : null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        evictValidator(localKey);
+        remote.evict(key);
+        local.invalidate(localKey);
+        publisher.publish(name, localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = localKey(key);
+        evictValidator(localKey);
+        boolean present = remote.evictIfPresent(key);
+        local.invalidate(localKey);
+        publisher.publish(name, localKey);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        publisher.publish(name, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = remote.invalidate();
+        local.invalidateAll();
+        publisher.publish(name, null);
+        return invalidated;
+    }
+
+    /**
+     * Drop local entries on behalf of a peer node.
+     *
+     * @param key the local key, or null to drop every entry
+     */
+    void invalidateLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+            local.invalidate(key + VALIDATOR_SUFFIX);
+        }
+    }
+
+    /**
+     * Get the validators of a cached value without reading the value.
+     *
+     * @param key the cache key
+     * @return the validators, or null if the cache is not validated or has no entry
+     */
+    public CacheValidator validator(Object key) {
+        if (!validated) {
+            return null;
+        }
+        String validatorKey = localKey(key) + VALIDATOR_SUFFIX;
+        Object encoded = local.getIfPresent(validatorKey);
+        if (encoded == null) {
+            ValueWrapper wrapper = remote.get(validatorKey);
+            encoded = wrapper != null ? wrapper.get() : null;
+            if (encoded == null) {
+                return null;
+            }
+            local.put(validatorKey, encoded);
+        }
+        return CacheValidator.decode((String) encoded);
+    }
+
+    /**
+     * Drop a local entry on this node and on all peers after its L2 entry was removed
+     * directly in Redis.
+     *
+     * @param key the cache key
+     */
+    void dropLocal(Object key) {
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        local.invalidate(localKey + VALIDATOR_SUFFIX);
+        publisher.publish(name, localKey);
+    }
+
+    private Object lookup(Object key, String localKey) {
+        Object entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            l1Hits.increment();
+            return entry;
+        }
+        l1Misses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            l2Hits.increment();
+            local.put(localKey, wrapper.get());
+            return wrapper.get();
+        }
+        l2Misses.increment();
+        return null;
+    }
+
+    /**
+     * Load a missing entry once per node; concurrent callers wait for the same result.
+     */
+    private Object loadShared(Object key, String localKey, Callable<?> valueLoader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(localKey, load);
+        if (running != null) {
+            coalescedLoads.increment();
+            return await(key, running);
+        }
+
+        try {
+            Object entry = loadAcrossNodes(key, localKey, valueLoader, loadPolicy.lockWait());
+            load.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, load);
+        }
+    }
+
+    /**
+     * Load an entry while holding the cross-node lock when the policy has one. A node that
+     * gets the lock late re-reads L2 first, so only the lock winner hits the database.
+     */
+    private Object loadAcrossNodes(Object key, String localKey, Callable<?> valueLoader, Duration wait) {
+        if (!loadPolicy.usesLock()) {
+            return load(key, localKey, valueLoader, false);
+        }
+
+        RLock lock = redissonClient.getLock(LOCK_PREFIX + name + "::" + localKey);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(wait.toMillis(), loadPolicy.lockLease().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Cache load lock unavailable for {}::{}: {}", name, localKey, e.getMessage());
+        }
+
+        try {
+            ValueWrapper loaded = remote.get(key);
+            if (loaded != null && loaded.get() != null) {
+                local.put(localKey, loaded.get());
+                return loaded.get();
+            }
+            return load(key, localKey, valueLoader, false);
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Object load(Object key, String localKey, Callable<?> valueLoader, boolean refresh) {
+        long start = System.currentTimeMillis();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        (refresh ? earlyRefreshes : missLoads).increment();
+        if (value == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        Object entry = loadPolicy.refreshesEarly()
+                ? new CachedValue(value, now - start, now + timeToLive(key, value).toMillis())
+                : value;
+        storeValidator(localKey, value, now);
+        remote.put(key, entry);
+        local.put(localKey, entry);
+        if (refresh) {
+            publisher.publish(name, localKey);
+        }
+        return entry;
+    }
+
+    /**
+     * XFetch: recompute when {@code now - delta * beta * ln(rand())} reaches the expiry,
+     * so expensive entries start refreshing earlier and only one caller in many does.
+     */
+    private void refreshIfDue(Object key, String localKey, Object entry, Callable<?> valueLoader) {
+        if (!loadPolicy.refreshesEarly() || !(entry instanceof CachedValue cached)) {
+            return;
+        }
+        double jitter = cached.getComputeMillis() * loadPolicy.earlyRefreshBeta()
+                * Math.log(ThreadLocalRandom.current().nextDouble());
+        if (System.currentTimeMillis() - jitter < cached.getExpiresAtMillis()) {
+            return;
+        }
+
+        if (!refreshing.add(localKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshTransaction.execute(status -> refreshNow(key, localKey, valueLoader));
+                } catch (RuntimeException e) {
+                    log.warn("Early refresh failed for {}::{}: {}", name, localKey, e.getMessage());
+                } finally {
+                    refreshing.remove(localKey);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Refresh queue is full; the entry is still valid, so serve it as is.
+            refreshing.remove(localKey);
+        }
+    }
+
+    private Object refreshNow(Object key, String localKey, Callable<?> valueLoader) {
+        if (!loadPolicy.usesLock()) {
+            return load(key, localKey, valueLoader, true);
+        }
+        RLock lock = redissonClient.getLock(LOCK_PREFIX + name + "::" + localKey);
+        if (!lock.tryLock()) {
+            // Another node is already refreshing this entry.
+            return null;
+        }
+        try {
+            return load(key, localKey, valueLoader, true);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void storeValidator(String localKey, Object value, long computedAt) {
+        if (!validated) {
+            return;
+        }
+        String encoded = CacheValidator.of(unwrap(value), computedAt).encode();
+        remote.put(localKey + VALIDATOR_SUFFIX, encoded);
+        local.put(localKey + VALIDATOR_SUFFIX, encoded);
+    }
+
+    private void evictValidator(String localKey) {
+        if (validated) {
+            remote.evict(localKey + VALIDATOR_SUFFIX);
+            local.invalidate(localKey + VALIDATOR_SUFFIX);
+        }
+    }
+
+    private Duration timeToLive(Object key, Object value) {
+        if (remote instanceof RedisCache redisCache) {
+            Duration ttl = redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+            if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
+                return ttl;
+            }
+        }
+        return Duration.ofDays(365);
+    }
+
+    private Object await(Object key, CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ValueRetrievalException(key, null, e.getCause());
+        }
+    }
+
+    private static Object unwrap(Object entry) {
+        return entry instanceof CachedValue cached ? cached.getValue() : entry;
+    }
+
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private Counter gets(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("cache.level.gets")
+                .description("Cache lookups per tier")
+                .tag("cache", name)
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter loads(MeterRegistry meterRegistry, String trigger) {
+        return Counter.builder("cache.level.loads")
+                .description("Values computed by the cache loader")
+                .tag("cache", name)
+                .tag("trigger", trigger)
+                .register(meterRegistry);
+    }
+}
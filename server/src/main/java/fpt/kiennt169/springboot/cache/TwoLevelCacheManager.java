@@ -0,0 +1,187 @@
+package fpt.kiennt169.springboot.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fpt.kiennt169.springboot.config.NearCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link CacheManager} that puts a Caffeine L1 in front of every cache of a Redis-backed
+ * L2 manager and keeps the L1s of all nodes coherent over a Redis topic.
+ *
+ * Caches are wrapped in {@link TransactionAwareCacheDecorator}, so both tiers are
+ * written and invalidated only after the surrounding transaction commits.
+ *
+ * Each cache gets a {@link CacheLoadPolicy} by name, and validated caches keep HTTP
+ * validators next to their values. Early refreshes run on a small bounded pool in a
+ * read-only transaction and are dropped when the pool is saturated.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, DisposableBean {
+
+    static final String INVALIDATION_TOPIC = "cache:l1:invalidate";
+
+    private static final char SEPARATOR = '\n';
+    private static final int REFRESH_THREADS = 2;
+    private static final int REFRESH_QUEUE_CAPACITY = 64;
+
+    private final CacheManager remote;
+    private final NearCacheProperties properties;
+    private final Map<String, CacheLoadPolicy> loadPolicies;
+    private final Set<String> validatedCaches;
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate refreshTransaction;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final RTopic topic;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoLevelCache> localCaches = new ConcurrentHashMap<>();
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remote, NearCacheProperties properties,
+                                Map<String, CacheLoadPolicy> loadPolicies, Set<String> validatedCaches,
+                                RedissonClient redissonClient,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.properties = properties;
+        this.loadPolicies = Map.copyOf(loadPolicies);
+        this.validatedCaches = Set.copyOf(validatedCaches);
+        this.redissonClient = redissonClient;
+        this.meterRegistry = meterRegistry;
+
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setReadOnly(true);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.topic = redissonClient.getTopic(INVALIDATION_TOPIC);
+        this.topic.addListener(String.class, (channel, message) -> onInvalidation(message));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TransactionAwareCacheDecorator(createCache(n, remoteCache)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private TwoLevelCache createCache(String name, Cache remoteCache) {
+        long maxSize = properties.maxSizeFor(name);
+        Duration ttl = properties.ttlFor(name);
+
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CacheLoadPolicy loadPolicy = loadPolicies.getOrDefault(name, CacheLoadPolicy.LOCAL_ONLY);
+        TwoLevelCache cache = new TwoLevelCache(name, local, remoteCache, this::publish, loadPolicy,
+                validatedCaches.contains(name), redissonClient, refreshExecutor, refreshTransaction, meterRegistry);
+        localCaches.put(name, cache);
+
+        Gauge.builder("cache.level.size", local, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                .description("Approximate number of entries in the local tier")
+                .tag("cache", name)
+                .tag("level", "l1")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.level.evictions", local, c -> c.stats().evictionCount())
+                .description("Local-tier entries evicted by the size bound")
+                .tag("cache", name)
+                .tag("level", "l1")
+                .register(meterRegistry);
+
+        log.info("Created two-level cache '{}' (L1 max {} entries, ttl {}, load policy {})",
+                name, maxSize, ttl, loadPolicy);
+        return cache;
+    }
+
+    private void publish(String cacheName, String key) {
+        StringBuilder message = new StringBuilder()
+                .append(nodeId).append(SEPARATOR)
+                .append(System.currentTimeMillis()).append(SEPARATOR)
+                .append(cacheName);
+        if (key != null) {
+            message.append(SEPARATOR).append(key);
+        }
+        try {
+            topic.publish(message.toString());
+        } catch (Exception e) {
+            log.warn("Failed to broadcast L1 invalidation for cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    private void onInvalidation(String message) {
+        String[] parts = message.split(String.valueOf(SEPARATOR), 4);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        String cacheName = parts[2];
+        TwoLevelCache cache = localCaches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+
+        cache.invalidateLocal(parts.length == 4 ? parts[3] : null);
+
+        long lagMillis = Math.max(0, System.currentTimeMillis() - Long.parseLong(parts[1]));
+        Timer.builder("cache.level.invalidation.lag")
+                .description("Delay between an eviction on one node and the L1 invalidation on a peer")
+                .tag("cache", cacheName)
+                .register(meterRegistry)
+                .record(Duration.ofMillis(lagMillis));
+        Counter.builder("cache.level.invalidations")
+                .description("L1 invalidations received from peer nodes")
+                .tag("cache", cacheName)
+                .register(meterRegistry)
+                .increment();
+    }
+}
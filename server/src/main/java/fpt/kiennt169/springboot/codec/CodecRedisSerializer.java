@@ -0,0 +1,56 @@
+package fpt.kiennt169.springboot.codec;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * {@link RedisSerializer} backed by {@link PayloadCodec} that still reads entries
+ * written by the serializer it replaces.
+ */
+public class CodecRedisSerializer implements RedisSerializer<Object> {
+
+    private final PayloadCodec codec;
+    private final RedisSerializer<Object> legacy;
+    private final boolean writeLegacy;
+
+    /**
+     * @param codec the framed codec
+     * @param legacy serializer used for unframed entries
+     * @param writeLegacy keep writing the legacy format, for the first phase of a rolling deploy
+     */
+    public CodecRedisSerializer(PayloadCodec codec, RedisSerializer<Object> legacy, boolean writeLegacy) {
+        this.codec = codec;
+        this.legacy = legacy;
+        this.writeLegacy = writeLegacy;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (writeLegacy) {
+            return legacy.serialize(value);
+        }
+        try {
+            return codec.encode(value);
+        } catch (Exception e) {
+            throw new SerializationException("Could not serialize: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (!PayloadCodec.isFramed(bytes)) {
+            return legacy.deserialize(bytes);
+        }
+        try {
+            return codec.decode(bytes);
+        } catch (Exception e) {
+            throw new SerializationException("Could not deserialize: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package fpt.kiennt169.springboot.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Framed binary encoding for values stored in Redis.
+ *
+ * Every payload starts with a 4-byte header: a magic byte, the frame version, the body
+ * {@link PayloadFormat} and a flags byte. Bodies at or above the compression threshold
+ * are LZ4-compressed and prefixed with their uncompressed length. Because the format is
+ * recorded per entry, nodes can switch the write format while still reading entries
+ * written in any other format, and unframed legacy JSON can be told apart by
+ * {@link #isFramed(byte[])}.
+ *
+ * Type information is embedded the same way the cache serializer always did, so any
+ * value that round-tripped through Redis before still does.
+ */
+public class PayloadCodec {
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION = 1;
+    static final int HEADER_LENGTH = 4;
+
+    private static final byte FLAG_LZ4 = 1;
+
+    private final PayloadFormat writeFormat;
+    private final int compressionThreshold;
+    private final Map<PayloadFormat, ObjectMapper> mappers = new EnumMap<>(PayloadFormat.class);
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    /**
+     * @param writeFormat body format used for new entries
+     * @param compressionThreshold minimum body size in bytes to compress; 0 or less disables compression
+     */
+    public PayloadCodec(PayloadFormat writeFormat, int compressionThreshold) {
+        this.writeFormat = writeFormat;
+        this.compressionThreshold = compressionThreshold;
+        mappers.put(PayloadFormat.JSON, typedMapper(new JsonFactory()));
+        mappers.put(PayloadFormat.SMILE, typedMapper(new SmileFactory()));
+    }
+
+    /**
+     * Object mapper that embeds concrete types for non-final classes, as the Redis cache
+     * has always done. Unknown properties are ignored so that nodes running different
+     * versions of a DTO can read each other's entries during a rolling deploy.
+     */
+    public static ObjectMapper typedMapper(JsonFactory factory) {
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        BasicPolymorphicTypeValidator ptv = BasicPolymorphicTypeValidator.builder()
+            .allowIfBaseType(Object.class)
+            .build();
+        objectMapper.activateDefaultTyping(ptv, ObjectMapper.DefaultTyping.NON_FINAL);
+        return objectMapper;
+    }
+
+    public static boolean isFramed(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC;
+    }
+
+    public byte[] encode(Object value) throws IOException {
+        byte[] body = mappers.get(writeFormat).writeValueAsBytes(value);
+
+        if (compressionThreshold > 0 && body.length >= compressionThreshold) {
+            byte[] compressed = compressor.compress(body);
+            if (compressed.length + Integer.BYTES < body.length) {
+                return ByteBuffer.allocate(HEADER_LENGTH + Integer.BYTES + compressed.length)
+                    .put(MAGIC).put(VERSION).put(writeFormat.getCode()).put(FLAG_LZ4)
+                    .putInt(body.length)
+                    .put(compressed)
+                    .array();
+            }
+        }
+
+        return ByteBuffer.allocate(HEADER_LENGTH + body.length)
+            .put(MAGIC).put(VERSION).put(writeFormat.getCode()).put((byte) 0)
+            .put(body)
+            .array();
+    }
+
+    public Object decode(byte[] bytes) throws IOException {
+        if (!isFramed(bytes)) {
+            throw new IOException("Payload is not framed");
+        }
+        if (bytes[1] > VERSION) {
+            throw new IOException("Unsupported payload frame version: " + bytes[1]);
+        }
+
+        ObjectMapper mapper = mappers.get(PayloadFormat.fromCode(bytes[2]));
+        if ((bytes[3] & FLAG_LZ4) == 0) {
+            return mapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, Object.class);
+        }
+
+        int length = ByteBuffer.wrap(bytes, HEADER_LENGTH, Integer.BYTES).getInt();
+        byte[] body = decompressor.decompress(bytes, HEADER_LENGTH + Integer.BYTES, length);
+        return mapper.readValue(body, Object.class);
+    }
+}
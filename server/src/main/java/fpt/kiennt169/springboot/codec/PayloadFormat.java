@@ -0,0 +1,30 @@
+package fpt.kiennt169.springboot.codec;
+
+/**
+ * Body encodings supported by {@link PayloadCodec}. The code is written into the
+ * frame header, so existing codes must never be renumbered.
+ */
+public enum PayloadFormat {
+
+    JSON((byte) 1),
+    SMILE((byte) 2);
+
+    private final byte code;
+
+    PayloadFormat(byte code) {
+        this.code = code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static PayloadFormat fromCode(byte code) {
+        for (PayloadFormat format : values()) {
+            if (format.code == code) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payload format: " + code);
+    }
+}
@@ -0,0 +1,65 @@
+package fpt.kiennt169.springboot.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+import java.io.IOException;
+
+/**
+ * Redisson {@link Codec} backed by {@link PayloadCodec} that still reads values
+ * written by the codec it replaces.
+ */
+public class RedissonPayloadCodec extends BaseCodec {
+
+    private final PayloadCodec codec;
+    private final Codec legacy;
+    private final boolean writeLegacy;
+
+    private final Encoder encoder;
+    private final Decoder<Object> decoder;
+
+    /**
+     * @param codec the framed codec
+     * @param legacy codec used for unframed values
+     * @param writeLegacy keep writing the legacy format, for the first phase of a rolling deploy
+     */
+    public RedissonPayloadCodec(PayloadCodec codec, Codec legacy, boolean writeLegacy) {
+        this.codec = codec;
+        this.legacy = legacy;
+        this.writeLegacy = writeLegacy;
+        this.encoder = this::encode;
+        this.decoder = (buf, state) -> isFramed(buf) ? decodeFramed(buf) : legacy.getValueDecoder().decode(buf, state);
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    private ByteBuf encode(Object value) throws IOException {
+        if (writeLegacy) {
+            return legacy.getValueEncoder().encode(value);
+        }
+        byte[] bytes = codec.encode(value);
+        return ByteBufAllocator.DEFAULT.buffer(bytes.length).writeBytes(bytes);
+    }
+
+    private Object decodeFramed(ByteBuf buf) throws IOException {
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        return codec.decode(bytes);
+    }
+
+    private boolean isFramed(ByteBuf buf) {
+        return buf.readableBytes() >= PayloadCodec.HEADER_LENGTH && buf.getByte(buf.readerIndex()) == PayloadCodec.MAGIC;
+    }
+}
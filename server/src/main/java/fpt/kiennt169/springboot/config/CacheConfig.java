@@ -1,10 +1,15 @@
 package fpt.kiennt169.springboot.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.core.JsonFactory;
+import fpt.kiennt169.springboot.cache.CacheLoadPolicy;
+import fpt.kiennt169.springboot.cache.SearchResultCache;
+import fpt.kiennt169.springboot.cache.TwoLevelCacheManager;
+import fpt.kiennt169.springboot.codec.CodecRedisSerializer;
+import fpt.kiennt169.springboot.codec.PayloadCodec;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,10 +19,12 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Configuration
@@ -25,19 +32,18 @@ import java.util.Map;
 public class CacheConfig {
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        log.info("Configuring Cache Manager with GenericJackson2JsonRedisSerializer");
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, NearCacheProperties nearCacheProperties,
+                                     RedissonClient redissonClient, MeterRegistry meterRegistry,
+                                     PayloadCodec payloadCodec, RedisCodecProperties codecProperties,
+                                     PlatformTransactionManager transactionManager,
+                                     SearchCacheProperties searchCacheProperties) {
+        log.info("Configuring Cache Manager with payload codec serialization");
         
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        
-        BasicPolymorphicTypeValidator ptv = BasicPolymorphicTypeValidator.builder()
-            .allowIfBaseType(Object.class)
-            .build();
-        objectMapper.activateDefaultTyping(ptv, ObjectMapper.DefaultTyping.NON_FINAL);
-        
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        // Entries written before the codec was introduced are plain typed JSON
+        GenericJackson2JsonRedisSerializer legacySerializer =
+            new GenericJackson2JsonRedisSerializer(PayloadCodec.typedMapper(new JsonFactory()));
+        CodecRedisSerializer serializer =
+            new CodecRedisSerializer(payloadCodec, legacySerializer, codecProperties.isWriteLegacy());
         
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(Duration.ofMinutes(30))
@@ -49,12 +55,34 @@ public class CacheConfig {
         cacheConfigurations.put("quizzes", defaultConfig.entryTtl(Duration.ofHours(1)));
         cacheConfigurations.put("questions", defaultConfig.entryTtl(Duration.ofHours(1)));
         cacheConfigurations.put("users", defaultConfig.entryTtl(Duration.ofMinutes(15)));
+        cacheConfigurations.put("userAuth", defaultConfig.entryTtl(Duration.ofMinutes(15)));
         cacheConfigurations.put("roles", defaultConfig.entryTtl(Duration.ofHours(24)));
+        cacheConfigurations.put(SearchResultCache.CACHE_NAME, defaultConfig.entryTtl(searchCacheProperties.getTtl()));
+        
+        // Quiz reads are the hottest and most expensive loads: elect one loader across nodes
+        // and refresh early. Users only need the lock; roles are cheap and rarely missed.
+        Map<String, CacheLoadPolicy> loadPolicies = new HashMap<>();
+        loadPolicies.put("quizzes", new CacheLoadPolicy(Duration.ofSeconds(5), Duration.ofSeconds(10), 1.0));
+        loadPolicies.put("questions", new CacheLoadPolicy(Duration.ofSeconds(5), Duration.ofSeconds(10), 1.0));
+        loadPolicies.put("users", new CacheLoadPolicy(Duration.ofSeconds(2), Duration.ofSeconds(5), 0.0));
+        loadPolicies.put("userAuth", new CacheLoadPolicy(Duration.ofSeconds(2), Duration.ofSeconds(5), 0.0));
+        loadPolicies.put("roles", CacheLoadPolicy.LOCAL_ONLY);
         
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(defaultConfig)
-            .withInitialCacheConfigurations(cacheConfigurations)
-            .transactionAware()
-            .build();
+            .withInitialCacheConfigurations(cacheConfigurations);
+        
+        if (!nearCacheProperties.isEnabled()) {
+            return builder.transactionAware().build();
+        }
+        
+        // The two-level manager applies transaction awareness around both tiers
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+        
+        log.info("Enabling in-process L1 cache in front of Redis");
+        // Quiz reads are polled with If-None-Match; keep their validators next to the values
+        return new TwoLevelCacheManager(redisCacheManager, nearCacheProperties, loadPolicies, Set.of("quizzes"),
+            redissonClient, transactionManager, meterRegistry);
     }
 }
@@ -0,0 +1,31 @@
+package fpt.kiennt169.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "exam.async")
+public class ExamQueueProperties {
+
+    private static final String RESULT_KEY_PREFIX = "exam:submission:";
+
+    private boolean enabled = false;
+    private String streamKey = "exam:submissions";
+    private String consumerGroup = "exam-graders";
+    private int consumers = 4;
+    private int batchSize = 100;
+    private long maxBacklog = 50000;
+    private int maxDeliveries = 5;
+    private Duration pollTimeout = Duration.ofSeconds(2);
+    private Duration claimIdle = Duration.ofMinutes(1);
+    private Duration resultTtl = Duration.ofHours(1);
+
+    public String resultKey(UUID ticket) {
+        return RESULT_KEY_PREFIX + ticket;
+    }
+}
@@ -0,0 +1,16 @@
+package fpt.kiennt169.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "search.full-text")
+public class FullTextSearchProperties {
+
+    private boolean enabled = true;
+    private boolean manageSchema = true;
+    private String language = "simple";
+    private int minTermLength = 3;
+}
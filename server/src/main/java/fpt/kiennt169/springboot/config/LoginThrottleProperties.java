@@ -0,0 +1,19 @@
+package fpt.kiennt169.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "security.login-throttle")
+public class LoginThrottleProperties {
+
+    private boolean enabled = true;
+    private int maxFailures = 5;
+    private Duration failureWindow = Duration.ofMinutes(15);
+    private Duration baseLockout = Duration.ofSeconds(30);
+    private Duration maxLockout = Duration.ofHours(1);
+}
@@ -0,0 +1,36 @@
+package fpt.kiennt169.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache.local")
+public class NearCacheProperties {
+
+    private boolean enabled = true;
+    private long maxSize = 1000;
+    private Duration ttl = Duration.ofMinutes(5);
+    private Map<String, CacheSpec> caches = new HashMap<>();
+
+    @Data
+    public static class CacheSpec {
+        private Long maxSize;
+        private Duration ttl;
+    }
+
+    public long maxSizeFor(String cacheName) {
+        CacheSpec spec = caches.get(cacheName);
+        return spec != null && spec.getMaxSize() != null ? spec.getMaxSize() : maxSize;
+    }
+
+    public Duration ttlFor(String cacheName) {
+        CacheSpec spec = caches.get(cacheName);
+        return spec != null && spec.getTtl() != null ? spec.getTtl() : ttl;
+    }
+}
@@ -0,0 +1,26 @@
+package fpt.kiennt169.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "security.password")
+public class PasswordHashingProperties {
+
+    /** BCrypt work factor; ignored when {@code autoStrength} is on */
+    private int strength = 10;
+
+    /** Pick the strength at startup so one hash takes about {@code targetLatency} */
+    private boolean autoStrength = false;
+    private Duration targetLatency = Duration.ofMillis(250);
+    private int minStrength = 10;
+    private int maxStrength = 14;
+
+    /** Hashing threads; 0 uses the number of available processors */
+    private int threads = 0;
+    private int queueCapacity = 64;
+}
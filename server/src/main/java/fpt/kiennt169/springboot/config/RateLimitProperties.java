@@ -1,9 +1,14 @@
 package fpt.kiennt169.springboot.config;
 
+import fpt.kiennt169.springboot.enums.RateLimitKeyEnum;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "rate-limit")
@@ -11,6 +16,13 @@ public class RateLimitProperties {
 
     private AuthRateLimit auth = new AuthRateLimit();
     private ApiRateLimit api = new ApiRateLimit();
+    private Hybrid hybrid = new Hybrid();
+    private Breaker breaker = new Breaker();
+
+    /**
+     * Endpoint-specific policies, evaluated in order before the auth and api limits
+     */
+    private List<Policy> policies = new ArrayList<>();
 
     @Data
     public static class AuthRateLimit {
@@ -26,5 +38,56 @@ public class RateLimitProperties {
         private int capacity = 100; 
         private int refillTokens = 100;
         private int refillPeriodMinutes = 1;
+        private RateLimitKeyEnum key = RateLimitKeyEnum.USER_OR_IP;
+    }
+
+    /**
+     * A rate limit applied to requests matching one of {@code paths} and, if set, one of
+     * {@code methods}. Paths use {@code *} for one segment and a trailing {@code **} for
+     * any number. A disabled policy exempts its requests from all later policies.
+     */
+    @Data
+    public static class Policy {
+        private String name;
+        private boolean enabled = true;
+        private List<String> paths = new ArrayList<>();
+        private List<String> methods = new ArrayList<>();
+        private RateLimitKeyEnum key = RateLimitKeyEnum.USER_OR_IP;
+        private int cost = 1;
+        private List<Limit> limits = new ArrayList<>();
+    }
+
+    @Data
+    public static class Limit {
+        private int capacity;
+        private int refillTokens;
+        private Duration refillPeriod = Duration.ofMinutes(1);
+    }
+
+    /**
+     * Node-local buckets that synchronize with Redis in batches. Each node may overshoot
+     * a limit by at most {@code syncTokens} (capped at a tenth of the capacity) before
+     * its next sync.
+     */
+    @Data
+    public static class Hybrid {
+        private boolean enabled = true;
+        private int syncTokens = 20;
+        private Duration syncInterval = Duration.ofMillis(500);
+        private int maxBuckets = 10_000;
+        private Duration bucketIdleTtl = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Latency budget and circuit breaker for the Redis check. When the breaker is open,
+     * requests are limited by node-local buckets with the same bandwidths.
+     */
+    @Data
+    public static class Breaker {
+        private boolean enabled = true;
+        private Duration timeout = Duration.ofMillis(50);
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int maxLocalBuckets = 10_000;
     }
 }
@@ -0,0 +1,16 @@
+package fpt.kiennt169.springboot.config;
+
+import fpt.kiennt169.springboot.codec.PayloadFormat;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "redis.codec")
+public class RedisCodecProperties {
+
+    private PayloadFormat format = PayloadFormat.SMILE;
+    private int compressionThreshold = 2048;
+    private boolean writeLegacy = false;
+}
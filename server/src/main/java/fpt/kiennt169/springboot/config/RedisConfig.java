@@ -11,6 +11,9 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import fpt.kiennt169.springboot.codec.CodecRedisSerializer;
+import fpt.kiennt169.springboot.codec.PayloadCodec;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -56,8 +59,17 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
-        log.info("Creating RedisTemplate with JSON serialization");
+    public PayloadCodec payloadCodec(RedisCodecProperties codecProperties) {
+        log.info("Redis payload codec - format: {}, LZ4 threshold: {} bytes, write legacy JSON: {}",
+            codecProperties.getFormat(), codecProperties.getCompressionThreshold(), codecProperties.isWriteLegacy());
+        return new PayloadCodec(codecProperties.getFormat(), codecProperties.getCompressionThreshold());
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       PayloadCodec payloadCodec,
+                                                       RedisCodecProperties codecProperties) {
+        log.info("Creating RedisTemplate with payload codec serialization");
         
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
@@ -66,7 +78,8 @@ public class RedisConfig {
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         
-        RedisSerializer<Object> jsonSerializer = new CustomJacksonRedisSerializer(objectMapper);
+        RedisSerializer<Object> jsonSerializer = new CodecRedisSerializer(
+            payloadCodec, new CustomJacksonRedisSerializer(objectMapper), codecProperties.isWriteLegacy());
         
         StringRedisSerializer stringSerializer = new StringRedisSerializer();
         
@@ -1,5 +1,7 @@
 package fpt.kiennt169.springboot.config;
 
+import fpt.kiennt169.springboot.codec.PayloadCodec;
+import fpt.kiennt169.springboot.codec.RedissonPayloadCodec;
 import io.github.bucket4j.distributed.proxy.ProxyManager;
 import io.github.bucket4j.redis.redisson.cas.RedissonBasedProxyManager;
 import org.redisson.Redisson;
@@ -30,7 +32,7 @@ public class RedissonConfig {
     private int redisDatabase;
 
     @Bean(destroyMethod = "shutdown")
-    public RedissonClient redissonClient() {
+    public RedissonClient redissonClient(PayloadCodec payloadCodec, RedisCodecProperties codecProperties) {
         log.info("Initializing Redisson client for rate limiting");
         
         Config config = new Config();
@@ -47,7 +49,7 @@ public class RedissonConfig {
                 .setRetryAttempts(3)
                 .setRetryInterval(1500);
         
-        config.setCodec(new JsonJacksonCodec());
+        config.setCodec(new RedissonPayloadCodec(payloadCodec, new JsonJacksonCodec(), codecProperties.isWriteLegacy()));
         config.setThreads(16);
         config.setNettyThreads(32);
         
@@ -0,0 +1,17 @@
+package fpt.kiennt169.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache.search")
+public class SearchCacheProperties {
+
+    private boolean enabled = true;
+    private int maxPageSize = 100;
+    private Duration ttl = Duration.ofMinutes(5);
+}
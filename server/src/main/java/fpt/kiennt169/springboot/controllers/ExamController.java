@@ -32,6 +32,9 @@ public class ExamController {
         description = """
             Submit exam with answers for automatic scoring. 
             
+            **Requires:** the attempt ID returned by `POST /api/v1/quizzes/{id}/start`.
+            Each attempt can be submitted once, before its deadline.
+            
             **Scoring Rules:**
             - SINGLE_CHOICE: Must select exactly 1 correct answer
             - MULTIPLE_CHOICE: Must select ALL correct answers (no partial credit)
@@ -53,7 +56,7 @@ public class ExamController {
         ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "400",
-            description = "Validation error or Quiz is inactive",
+            description = "Validation error, invalid or expired attempt, or Quiz is inactive",
             content = @Content(schema = @Schema(implementation = ApiResponse.class))
         )
     })
@@ -0,0 +1,105 @@
+package fpt.kiennt169.springboot.controllers;
+
+import fpt.kiennt169.springboot.dtos.ApiResponse;
+import fpt.kiennt169.springboot.dtos.submissions.ExamSubmissionRequestDTO;
+import fpt.kiennt169.springboot.dtos.submissions.SubmissionStatusResponseDTO;
+import fpt.kiennt169.springboot.enums.SubmissionStatusEnum;
+import fpt.kiennt169.springboot.services.ExamSubmissionQueueService;
+import fpt.kiennt169.springboot.util.MessageUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@Tag(name = "Exam", description = "Exam submission and automatic scoring APIs")
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/exam/submissions")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "exam.async.enabled", havingValue = "true")
+public class ExamSubmissionController {
+
+    private final ExamSubmissionQueueService queueService;
+    private final MessageUtil messageUtil;
+
+    @Operation(
+        summary = "Queue exam answers for grading",
+        description = """
+            Accept an exam submission for background grading and return a ticket immediately.
+            
+            Poll `GET /api/v1/exam/submissions/{ticket}` until the status is COMPLETED or FAILED.
+            Scoring rules are the same as for `/api/v1/exam/submit`.
+            """
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "202",
+            description = "Submission accepted",
+            content = @Content(schema = @Schema(implementation = SubmissionStatusResponseDTO.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "Quiz not found",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "503",
+            description = "Submission queue is full, retry later",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        )
+    })
+    @PostMapping
+    public ResponseEntity<ApiResponse<SubmissionStatusResponseDTO>> enqueue(
+            @Parameter(description = "Exam submission with user ID, quiz ID, and answers")
+            @Valid @RequestBody ExamSubmissionRequestDTO requestDTO) {
+
+        log.info("Queueing exam submission from user: {} for quiz: {}", requestDTO.userId(), requestDTO.quizId());
+
+        SubmissionStatusResponseDTO status = queueService.enqueue(requestDTO);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(HttpStatus.ACCEPTED.value(), status,
+                        messageUtil.getMessage("success.exam.queued")));
+    }
+
+    @Operation(summary = "Get submission status", description = "Get the grading status and, once completed, the result of a queued submission")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Status retrieved",
+            content = @Content(schema = @Schema(implementation = SubmissionStatusResponseDTO.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "Unknown or expired ticket",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        )
+    })
+    @GetMapping("/{ticket}")
+    public ResponseEntity<ApiResponse<SubmissionStatusResponseDTO>> getStatus(
+            @Parameter(description = "Ticket returned when the submission was queued") @PathVariable UUID ticket) {
+
+        SubmissionStatusResponseDTO status = queueService.getStatus(ticket);
+
+        String message;
+        if (status.status() == SubmissionStatusEnum.COMPLETED) {
+            message = Boolean.TRUE.equals(status.result().passed())
+                ? messageUtil.getMessage("success.exam.passed")
+                : messageUtil.getMessage("success.exam.failed");
+        } else {
+            message = messageUtil.getMessage("success.exam.status");
+        }
+
+        return ResponseEntity.ok(ApiResponse.success(status, message));
+    }
+}
@@ -1,6 +1,9 @@
 package fpt.kiennt169.springboot.controllers;
 
+import fpt.kiennt169.springboot.cache.CacheValidator;
+import fpt.kiennt169.springboot.cache.CacheValidators;
 import fpt.kiennt169.springboot.dtos.ApiResponse;
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
 import fpt.kiennt169.springboot.dtos.questions.QuestionRequestDTO;
 import fpt.kiennt169.springboot.dtos.questions.QuestionResponseDTO;
@@ -16,7 +19,9 @@ import org.springdoc.core.annotations.ParameterObject;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -32,6 +37,7 @@ public class QuestionController {
 
     private final QuestionService questionService;
     private final MessageUtil messageUtil;
+    private final CacheValidators cacheValidators;
 
     @Operation(
         summary = "Create new question",
@@ -87,13 +93,17 @@ public class QuestionController {
     
     @Operation(
         summary = "Search questions with pagination",
-        description = "Search questions by content and/or type with pagination support"
+        description = "Search questions by content and/or type with pagination support. Results follow the requested sort; `sort=relevance` ranks content and answer matches, most relevant first."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "200",
             description = "Questions searched successfully",
             content = @Content(schema = @Schema(implementation = PageResponseDTO.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "304",
+            description = "Search page not modified"
         )
     })
     @GetMapping("/search")
@@ -106,6 +116,41 @@ public class QuestionController {
             @PageableDefault(size = 10, sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC)
             Pageable pageable) {
         PageResponseDTO<QuestionResponseDTO> response = questionService.searchWithPaging(content, type, pageable);
+        CacheValidator validator = cacheValidators.validatorFor(null, null, response);
+        return cacheValidators.ok(validator)
+                .body(ApiResponse.success(response, messageUtil.getMessage("success.question.retrieved.all")));
+    }
+
+    @Operation(
+        summary = "Scroll questions with a cursor",
+        description = "Keyset pagination over questions by content and/or type. Returns an opaque cursor instead of totals; pass it back to get the next slice. Sortable by createdAt, score and type."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Questions retrieved successfully",
+            content = @Content(schema = @Schema(implementation = CursorPageResponseDTO.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or unsupported sort",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        )
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<ApiResponse<CursorPageResponseDTO<QuestionResponseDTO>>> scrollQuestions(
+            @Parameter(description = "Content to search for")
+            @RequestParam(required = false) String content,
+            @Parameter(description = "Question type filter")
+            @RequestParam(required = false) fpt.kiennt169.springboot.enums.QuestionTypeEnum type,
+            @Parameter(description = "Cursor from the previous slice; omit for the first slice")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of items per slice (max 100)")
+            @RequestParam(defaultValue = "20") int size,
+            @ParameterObject
+            @SortDefault(sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC)
+            Sort sort) {
+        CursorPageResponseDTO<QuestionResponseDTO> response = questionService.scroll(content, type, cursor, size, sort);
         return ResponseEntity.ok(ApiResponse.success(response, messageUtil.getMessage("success.question.retrieved.all")));
     }
 
@@ -119,6 +164,10 @@ public class QuestionController {
             description = "Question found",
             content = @Content(schema = @Schema(implementation = QuestionResponseDTO.class))
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "304",
+            description = "Question not modified"
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "404",
             description = "Question not found",
@@ -130,7 +179,9 @@ public class QuestionController {
             @Parameter(description = "Question ID", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
             @PathVariable("id") UUID id) {
         QuestionResponseDTO response = questionService.getById(id);
-        return ResponseEntity.ok(ApiResponse.success(response, messageUtil.getMessage("success.question.retrieved")));
+        CacheValidator validator = cacheValidators.validatorFor(null, null, response);
+        return cacheValidators.ok(validator)
+                .body(ApiResponse.success(response, messageUtil.getMessage("success.question.retrieved")));
     }
 
     @Operation(
@@ -1,10 +1,16 @@
 package fpt.kiennt169.springboot.controllers;
 
+import fpt.kiennt169.springboot.cache.CacheValidator;
+import fpt.kiennt169.springboot.cache.CacheValidators;
 import fpt.kiennt169.springboot.dtos.ApiResponse;
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
+import fpt.kiennt169.springboot.dtos.quizzes.ExamPaperResponseDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizDetailResponseDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizRequestDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizResponseDTO;
+import fpt.kiennt169.springboot.dtos.submissions.ExamSessionResponseDTO;
+import fpt.kiennt169.springboot.services.ExamSessionService;
 import fpt.kiennt169.springboot.services.QuizService;
 import fpt.kiennt169.springboot.util.MessageUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,11 +23,16 @@ import org.springdoc.core.annotations.ParameterObject;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.UUID;
 
@@ -32,7 +43,9 @@ import java.util.UUID;
 public class QuizController {
 
     private final QuizService quizService;
+    private final ExamSessionService examSessionService;
     private final MessageUtil messageUtil;
+    private final CacheValidators cacheValidators;
 
     @Operation(
         summary = "Create new quiz",
@@ -88,13 +101,17 @@ public class QuizController {
     
     @Operation(
         summary = "Search quizzes with pagination",
-        description = "Search quizzes by title and/or active status with pagination support"
+        description = "Search quizzes by title and/or active status with pagination support. Results follow the requested sort; `sort=relevance` ranks title matches, most relevant first."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "200",
             description = "Quizzes searched successfully",
             content = @Content(schema = @Schema(implementation = PageResponseDTO.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "304",
+            description = "Search page not modified"
         )
     })
     @GetMapping("/search")
@@ -107,12 +124,52 @@ public class QuizController {
             @PageableDefault(size = 10, sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC)
             Pageable pageable) {
         PageResponseDTO<QuizResponseDTO> response = quizService.searchWithPaging(title, active, pageable);
+        CacheValidator validator = cacheValidators.validatorFor(null, null, response);
+        return cacheValidators.ok(validator)
+                .body(ApiResponse.success(response, messageUtil.getMessage("success.quiz.retrieved.all")));
+    }
+
+    @Operation(
+        summary = "Scroll quizzes with a cursor",
+        description = "Keyset pagination over quizzes by title and/or active status. Returns an opaque cursor instead of totals; pass it back to get the next slice. Sortable by createdAt, title and durationMinutes."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Quizzes retrieved successfully",
+            content = @Content(schema = @Schema(implementation = CursorPageResponseDTO.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or unsupported sort",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        )
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<ApiResponse<CursorPageResponseDTO<QuizResponseDTO>>> scrollQuizzes(
+            @Parameter(description = "Title to search for")
+            @RequestParam(required = false) String title,
+            @Parameter(description = "Active status filter")
+            @RequestParam(required = false) Boolean active,
+            @Parameter(description = "Cursor from the previous slice; omit for the first slice")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of items per slice (max 100)")
+            @RequestParam(defaultValue = "20") int size,
+            @ParameterObject
+            @SortDefault(sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC)
+            Sort sort) {
+        CursorPageResponseDTO<QuizResponseDTO> response = quizService.scroll(title, active, cursor, size, sort);
         return ResponseEntity.ok(ApiResponse.success(response, messageUtil.getMessage("success.quiz.retrieved.all")));
     }
 
     @Operation(
         summary = "Get quiz by ID",
-        description = "Retrieve basic quiz information without questions. Use /details endpoint to get questions."
+        description = """
+            Retrieve basic quiz information without questions. Use /details endpoint to get questions.
+            
+            Responses carry ETag and Last-Modified; send them back in `If-None-Match` or
+            `If-Modified-Since` to get `304 Not Modified` while the quiz is unchanged.
+            """
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -120,6 +177,10 @@ public class QuizController {
             description = "Quiz found",
             content = @Content(schema = @Schema(implementation = QuizResponseDTO.class))
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "304",
+            description = "Quiz not modified"
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "404",
             description = "Quiz not found",
@@ -129,14 +190,25 @@ public class QuizController {
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<QuizResponseDTO>> getQuizById(
             @Parameter(description = "Quiz ID", required = true)
-            @PathVariable UUID id) {
+            @PathVariable UUID id,
+            WebRequest webRequest) {
+        String cacheKey = "basic::" + id;
+        if (cacheValidators.notModified(webRequest, "quizzes", cacheKey)) {
+            return null;
+        }
         QuizResponseDTO response = quizService.getById(id);
-        return ResponseEntity.ok(ApiResponse.success(response, messageUtil.getMessage("success.quiz.retrieved")));
+        CacheValidator validator = cacheValidators.validatorFor("quizzes", cacheKey, response);
+        return cacheValidators.ok(validator)
+                .body(ApiResponse.success(response, messageUtil.getMessage("success.quiz.retrieved")));
     }
 
     @Operation(
         summary = "Get quiz with questions",
-        description = "Retrieve detailed quiz information including all questions and answers. Use for exam display."
+        description = """
+            Retrieve detailed quiz information including all questions and answers with correctness flags. Exam takers use the exam paper instead.
+            
+            Supports `If-None-Match` / `If-Modified-Since`; unchanged quizzes are answered with `304 Not Modified`.
+            """
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -144,6 +216,15 @@ public class QuizController {
             description = "Quiz with questions retrieved",
             content = @Content(schema = @Schema(implementation = QuizDetailResponseDTO.class))
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "304",
+            description = "Quiz not modified"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "403",
+            description = "Access denied - Requires ADMIN role",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "404",
             description = "Quiz not found",
@@ -151,11 +232,106 @@ public class QuizController {
         )
     })
     @GetMapping("/{id}/details")
+    @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<QuizDetailResponseDTO>> getQuizWithQuestions(
             @Parameter(description = "Quiz ID", required = true)
-            @PathVariable("id") UUID id) {
+            @PathVariable("id") UUID id,
+            WebRequest webRequest) {
+        String cacheKey = "details::" + id;
+        if (cacheValidators.notModified(webRequest, "quizzes", cacheKey)) {
+            return null;
+        }
         QuizDetailResponseDTO response = quizService.getWithQuestions(id);
-        return ResponseEntity.ok(ApiResponse.success(response, messageUtil.getMessage("success.quiz.retrieved.with_questions")));
+        CacheValidator validator = cacheValidators.validatorFor("quizzes", cacheKey, response);
+        return cacheValidators.ok(validator)
+                .body(ApiResponse.success(response, messageUtil.getMessage("success.quiz.retrieved.with_questions")));
+    }
+
+    @Operation(
+        summary = "Get exam paper",
+        description = """
+            Retrieve the exam paper of an active quiz: questions and answer choices without correctness flags.
+            
+            The response carries the paper's content hash as ETag. Send it back in `If-None-Match`
+            to get `304 Not Modified` when the paper has not changed.
+            """
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Exam paper retrieved",
+            content = @Content(schema = @Schema(implementation = ExamPaperResponseDTO.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "304",
+            description = "Exam paper not modified"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "Quiz not found",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Quiz is inactive or has no questions",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        )
+    })
+    @GetMapping("/{id}/exam")
+    public ResponseEntity<ApiResponse<ExamPaperResponseDTO>> getExamPaper(
+            @Parameter(description = "Quiz ID", required = true)
+            @PathVariable("id") UUID id,
+            WebRequest webRequest) {
+        ExamPaperResponseDTO response = quizService.getExamPaper(id);
+        if (webRequest.checkNotModified(response.getContentHash())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(response.getContentHash())
+                .body(ApiResponse.success(response, messageUtil.getMessage("success.quiz.retrieved.exam")));
+    }
+
+    @Operation(
+        summary = "Start exam",
+        description = """
+            Start a timed exam attempt on an active quiz for the authenticated user.
+            
+            Returns the attempt ID, the server-side deadline (start time + quiz duration) and the
+            exam paper without correct answers. Send the attempt ID with the submission;
+            submissions after the deadline are rejected. Starting again while an attempt is
+            open returns that attempt with its original deadline.
+            """
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "201",
+            description = "Exam attempt started",
+            content = @Content(schema = @Schema(implementation = ExamSessionResponseDTO.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "User or Quiz not found",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Quiz is inactive or has no questions",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing token",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        )
+    })
+    @PostMapping("/{id}/start")
+    public ResponseEntity<ApiResponse<ExamSessionResponseDTO>> startExam(
+            @Parameter(description = "Quiz ID", required = true)
+            @PathVariable("id") UUID id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        ExamSessionResponseDTO response = examSessionService.startExam(id, authentication.getName());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.created(response, messageUtil.getMessage("success.exam.started")));
     }
 
     @Operation(
@@ -221,13 +397,22 @@ public class QuizController {
 
     @Operation(
         summary = "Get questions in quiz",
-        description = "Retrieve all questions associated with a specific quiz"
+        description = "Retrieve all questions associated with a specific quiz, including correct answers. Exam takers use the exam paper instead. Supports `If-None-Match` / `If-Modified-Since`."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "200",
             description = "Questions retrieved successfully"
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "304",
+            description = "Questions not modified"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "403",
+            description = "Access denied - Requires ADMIN role",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "404",
             description = "Quiz not found",
@@ -235,11 +420,19 @@ public class QuizController {
         )
     })
     @GetMapping("/{quizId}/questions")
+    @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<java.util.List<fpt.kiennt169.springboot.dtos.questions.QuestionResponseDTO>>> getQuizQuestions(
             @Parameter(description = "Quiz ID", required = true)
-            @PathVariable("quizId") UUID quizId) {
+            @PathVariable("quizId") UUID quizId,
+            WebRequest webRequest) {
+        String cacheKey = "details::" + quizId;
+        if (cacheValidators.notModified(webRequest, "quizzes", cacheKey)) {
+            return null;
+        }
         QuizDetailResponseDTO quiz = quizService.getWithQuestions(quizId);
-        return ResponseEntity.ok(ApiResponse.success(quiz.getQuestions(), messageUtil.getMessage("success.quiz.questions_retrieved")));
+        CacheValidator validator = cacheValidators.validatorFor("quizzes", cacheKey, quiz);
+        return cacheValidators.ok(validator)
+                .body(ApiResponse.success(quiz.getQuestions(), messageUtil.getMessage("success.quiz.questions_retrieved")));
     }
 
     @Operation(
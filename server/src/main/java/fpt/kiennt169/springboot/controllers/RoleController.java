@@ -1,6 +1,7 @@
 package fpt.kiennt169.springboot.controllers;
 
 import fpt.kiennt169.springboot.dtos.ApiResponse;
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
 import fpt.kiennt169.springboot.dtos.roles.RoleRequestDTO;
 import fpt.kiennt169.springboot.dtos.roles.RoleResponseDTO;
@@ -16,7 +17,9 @@ import org.springdoc.core.annotations.ParameterObject;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -118,6 +121,43 @@ public class RoleController {
         return ResponseEntity.ok(ApiResponse.success(response, messageUtil.getMessage("success.role.retrieved.all")));
     }
 
+    @Operation(
+        summary = "Scroll roles with a cursor",
+        description = "Keyset pagination over roles by name. Returns an opaque cursor instead of totals; pass it back to get the next slice. Sortable by name and createdAt."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Roles retrieved successfully",
+            content = @Content(schema = @Schema(implementation = CursorPageResponseDTO.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or unsupported sort",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "403",
+            description = "Access denied - Requires ADMIN role",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        )
+    })
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPageResponseDTO<RoleResponseDTO>>> scrollRoles(
+            @Parameter(description = "Role name to search for")
+            @RequestParam(required = false) String name,
+            @Parameter(description = "Cursor from the previous slice; omit for the first slice")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of items per slice (max 100)")
+            @RequestParam(defaultValue = "20") int size,
+            @ParameterObject
+            @SortDefault(sort = "name", direction = org.springframework.data.domain.Sort.Direction.ASC)
+            Sort sort) {
+        CursorPageResponseDTO<RoleResponseDTO> response = roleService.scroll(name, cursor, size, sort);
+        return ResponseEntity.ok(ApiResponse.success(response, messageUtil.getMessage("success.role.retrieved.all")));
+    }
+
     @Operation(
         summary = "Get role by ID",
         description = "Retrieve role information by ID"
@@ -1,6 +1,7 @@
 package fpt.kiennt169.springboot.controllers;
 
 import fpt.kiennt169.springboot.dtos.ApiResponse;
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
 import fpt.kiennt169.springboot.dtos.users.UserRequestDTO;
 import fpt.kiennt169.springboot.dtos.users.UserResponseDTO;
@@ -16,7 +17,9 @@ import org.springdoc.core.annotations.ParameterObject;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -126,6 +129,45 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(response, messageUtil.getMessage("success.user.retrieved.all")));
     }
 
+    @Operation(
+        summary = "Scroll users with a cursor",
+        description = "Keyset pagination over users by full name and/or active status. Returns an opaque cursor instead of totals; pass it back to get the next slice. Sortable by createdAt, email and fullName."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Users retrieved successfully",
+            content = @Content(schema = @Schema(implementation = CursorPageResponseDTO.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or unsupported sort",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "403",
+            description = "Access denied - Requires ADMIN role",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        )
+    })
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPageResponseDTO<UserResponseDTO>>> scrollUsers(
+            @Parameter(description = "Full name to search for")
+            @RequestParam(required = false) String fullName,
+            @Parameter(description = "Active status filter")
+            @RequestParam(required = false) Boolean active,
+            @Parameter(description = "Cursor from the previous slice; omit for the first slice")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of items per slice (max 100)")
+            @RequestParam(defaultValue = "20") int size,
+            @ParameterObject
+            @SortDefault(sort = "createdAt", direction = org.springframework.data.domain.Sort.Direction.DESC)
+            Sort sort) {
+        CursorPageResponseDTO<UserResponseDTO> response = userService.scroll(fullName, active, cursor, size, sort);
+        return ResponseEntity.ok(ApiResponse.success(response, messageUtil.getMessage("success.user.retrieved.all")));
+    }
+
     @Operation(
         summary = "Get user by ID",
         description = "Retrieve user details by user ID"
@@ -0,0 +1,20 @@
+package fpt.kiennt169.springboot.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Keyset page: a slice of items and an opaque cursor to the next slice, without totals")
+public record CursorPageResponseDTO<T>(
+
+    @Schema(description = "List of items in current slice")
+    List<T> content,
+
+    @Schema(description = "Requested number of items per slice", example = "20")
+    int size,
+
+    @Schema(description = "Whether there are more items after this slice", example = "true")
+    boolean hasNext,
+
+    @Schema(description = "Cursor to pass back for the next slice; null on the last slice")
+    String nextCursor
+) {}
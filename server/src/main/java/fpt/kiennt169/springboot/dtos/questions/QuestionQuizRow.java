@@ -0,0 +1,18 @@
+package fpt.kiennt169.springboot.dtos.questions;
+
+import java.util.UUID;
+
+/**
+ * Flat projection row linking a question to a quiz that uses it, so a page of questions
+ * can list their quizzes with one query instead of loading each question's quiz set.
+ */
+public record QuestionQuizRow(
+    UUID questionId,
+    UUID quizId,
+    String title
+) {
+
+    public QuestionResponseDTO.QuizInfoDTO toQuizInfo() {
+        return new QuestionResponseDTO.QuizInfoDTO(quizId, title);
+    }
+}
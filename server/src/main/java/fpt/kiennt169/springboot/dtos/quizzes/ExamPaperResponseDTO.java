@@ -0,0 +1,62 @@
+package fpt.kiennt169.springboot.dtos.quizzes;
+
+import fpt.kiennt169.springboot.enums.QuestionTypeEnum;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Exam paper shown to takers - questions and answer choices without correctness flags")
+public class ExamPaperResponseDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "Quiz ID")
+    private UUID quizId;
+
+    @Schema(description = "Quiz title", example = "Java Programming Basics")
+    private String title;
+
+    @Schema(description = "Quiz description", example = "Test your knowledge of Java fundamentals")
+    private String description;
+
+    @Schema(description = "Quiz duration in minutes", example = "60")
+    private Integer durationMinutes;
+
+    @Schema(description = "Questions with answer choices")
+    private List<ExamQuestionDTO> questions;
+
+    @Schema(description = "Hash of the paper content, also sent as ETag", example = "q3ZxN8p0l2s9VfTnYc1m4A")
+    private String contentHash;
+
+    @Schema(description = "Exam question without answer key")
+    public record ExamQuestionDTO(
+        @Schema(description = "Question ID")
+        UUID id,
+        @Schema(description = "Question content", example = "What is Java?")
+        String content,
+        @Schema(description = "Question type", example = "SINGLE_CHOICE")
+        QuestionTypeEnum type,
+        @Schema(description = "Points awarded for correct answer", example = "10")
+        Integer score,
+        @Schema(description = "Answer choices")
+        List<ExamAnswerDTO> answers
+    ) implements Serializable {}
+
+    @Schema(description = "Answer choice without correctness flag")
+    public record ExamAnswerDTO(
+        @Schema(description = "Answer ID")
+        UUID id,
+        @Schema(description = "Answer text", example = "A programming language")
+        String content
+    ) implements Serializable {}
+}
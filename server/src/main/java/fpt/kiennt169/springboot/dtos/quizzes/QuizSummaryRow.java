@@ -0,0 +1,22 @@
+package fpt.kiennt169.springboot.dtos.quizzes;
+
+import java.util.UUID;
+
+/**
+ * Flat projection row behind quiz list pages: the quiz columns and its question count,
+ * counted in SQL so listing quizzes never loads their question collections.
+ */
+public record QuizSummaryRow(
+    UUID id,
+    String title,
+    String description,
+    Integer durationMinutes,
+    Boolean active,
+    Long totalQuestions
+) {
+
+    public QuizResponseDTO toResponseDTO() {
+        return new QuizResponseDTO(id, title, description, durationMinutes, active,
+                Math.toIntExact(totalQuestions));
+    }
+}
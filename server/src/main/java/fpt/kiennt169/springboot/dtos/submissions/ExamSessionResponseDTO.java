@@ -0,0 +1,23 @@
+package fpt.kiennt169.springboot.dtos.submissions;
+
+import fpt.kiennt169.springboot.dtos.quizzes.ExamPaperResponseDTO;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Started exam attempt: attempt ID, server-side deadline and exam paper")
+public record ExamSessionResponseDTO(
+
+    @Schema(description = "Attempt ID to send back with the submission", example = "123e4567-e89b-12d3-a456-426614174000")
+    UUID attemptId,
+
+    @Schema(description = "Attempt start time", example = "2025-12-26T10:30:00")
+    LocalDateTime startedAt,
+
+    @Schema(description = "Submission deadline", example = "2025-12-26T11:30:00")
+    LocalDateTime deadline,
+
+    @Schema(description = "Exam paper without correct answers")
+    ExamPaperResponseDTO paper
+) {}
@@ -11,6 +11,10 @@ import java.util.UUID;
 @Schema(description = "Exam submission request with user ID, quiz ID, and list of question-answer pairs")
 public record ExamSubmissionRequestDTO(
     
+    @Schema(description = "Attempt ID returned when the exam was started", example = "456e4567-e89b-12d3-a456-426614174999")
+    @NotNull(message = "Attempt ID is required")
+    UUID attemptId,
+    
     @Schema(description = "ID of user taking the exam", example = "123e4567-e89b-12d3-a456-426614174000")
     @NotNull(message = "User ID is required")
     UUID userId,
@@ -0,0 +1,36 @@
+package fpt.kiennt169.springboot.dtos.submissions;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import fpt.kiennt169.springboot.enums.SubmissionStatusEnum;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+@Schema(description = "Status of an asynchronously processed exam submission")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SubmissionStatusResponseDTO(
+
+    @Schema(description = "Submission ticket (also the ID of the stored submission)", example = "123e4567-e89b-12d3-a456-426614174000")
+    UUID ticket,
+
+    @Schema(description = "Processing status", example = "PENDING")
+    SubmissionStatusEnum status,
+
+    @Schema(description = "Exam result, present once the submission is COMPLETED")
+    ExamResultResponseDTO result,
+
+    @Schema(description = "Failure reason, present when the submission FAILED", example = "Quiz is not active")
+    String error
+) {
+    public static SubmissionStatusResponseDTO pending(UUID ticket) {
+        return new SubmissionStatusResponseDTO(ticket, SubmissionStatusEnum.PENDING, null, null);
+    }
+
+    public static SubmissionStatusResponseDTO completed(UUID ticket, ExamResultResponseDTO result) {
+        return new SubmissionStatusResponseDTO(ticket, SubmissionStatusEnum.COMPLETED, result, null);
+    }
+
+    public static SubmissionStatusResponseDTO failed(UUID ticket, String error) {
+        return new SubmissionStatusResponseDTO(ticket, SubmissionStatusEnum.FAILED, null, error);
+    }
+}
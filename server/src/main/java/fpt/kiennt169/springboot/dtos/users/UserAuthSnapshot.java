@@ -0,0 +1,44 @@
+package fpt.kiennt169.springboot.dtos.users;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cached view of a user for authentication: credentials, status and role names,
+ * plus the profile fields returned by login, refresh and /me.
+ * Internal only - carries the password hash and must never be returned to clients.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserAuthSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private UUID id;
+    private String email;
+    private String passwordHash;
+    private Boolean active;
+    private Set<String> roles;
+
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String fullName;
+    private LocalDate dateOfBirth;
+    private String phoneNumber;
+
+    public UserResponseDTO toResponseDTO() {
+        return new UserResponseDTO(id, email, username, firstName, lastName, fullName,
+                dateOfBirth, phoneNumber, active, new HashSet<>(roles));
+    }
+}
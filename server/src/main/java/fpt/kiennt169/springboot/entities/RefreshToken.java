@@ -1,5 +1,7 @@
 package fpt.kiennt169.springboot.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -30,10 +32,12 @@ public class RefreshToken implements Serializable {
 
     private Instant expiresAt;
 
+    @JsonIgnore
     public boolean isExpired() {
         return Instant.now().isAfter(expiresAt);
     }
 
+    @JsonIgnore
     public long getRemainingSeconds() {
         if (isExpired()) {
             return 0;
@@ -0,0 +1,25 @@
+package fpt.kiennt169.springboot.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Outcome of rotating a refresh token, kept under the old token for a short grace window
+ * so that concurrent refreshes with the same token receive the same token pair.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenRotation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String accessToken;
+
+    private RefreshToken refreshToken;
+}
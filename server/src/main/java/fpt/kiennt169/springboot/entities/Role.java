@@ -2,6 +2,7 @@ package fpt.kiennt169.springboot.entities;
 
 import fpt.kiennt169.springboot.enums.RoleEnum;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.*;
 import java.util.UUID;
 
@@ -14,7 +15,8 @@ import java.util.UUID;
 public class Role extends BaseEntity {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private UUID id;
     
     @Enumerated(EnumType.STRING)
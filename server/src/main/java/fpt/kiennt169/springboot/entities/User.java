@@ -2,6 +2,7 @@ package fpt.kiennt169.springboot.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import lombok.*;
 import java.time.LocalDate;
 import java.util.HashSet;
@@ -22,7 +23,8 @@ import java.util.UUID;
 public class User extends BaseEntity {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private UUID id;
     
     @Column(nullable = false, unique = true)
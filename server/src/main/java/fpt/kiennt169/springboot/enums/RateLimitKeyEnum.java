@@ -0,0 +1,15 @@
+package fpt.kiennt169.springboot.enums;
+
+/**
+ * What a rate limit bucket is keyed on
+ */
+public enum RateLimitKeyEnum {
+    /** Client IP, from X-Forwarded-For when present */
+    IP,
+    /** Verified JWT subject; anonymous requests share one bucket */
+    USER,
+    /** Verified JWT subject, falling back to client IP for anonymous requests */
+    USER_OR_IP,
+    /** Client IP and JWT subject together */
+    IP_AND_USER
+}
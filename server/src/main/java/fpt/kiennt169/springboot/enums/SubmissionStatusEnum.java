@@ -0,0 +1,7 @@
+package fpt.kiennt169.springboot.enums;
+
+public enum SubmissionStatusEnum {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
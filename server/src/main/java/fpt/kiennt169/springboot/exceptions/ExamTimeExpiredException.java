@@ -0,0 +1,21 @@
+package fpt.kiennt169.springboot.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.UUID;
+
+public class ExamTimeExpiredException extends BaseException {
+    
+    private static final String ERROR_CODE = "EXAM_TIME_EXPIRED";
+    private static final String MESSAGE_KEY = "error.exam.time_expired";
+    
+    public ExamTimeExpiredException(UUID attemptId) {
+        super(
+            String.format("Exam attempt passed its deadline: %s", attemptId),
+            HttpStatus.BAD_REQUEST,
+            ERROR_CODE,
+            MESSAGE_KEY,
+            attemptId
+        );
+    }
+}
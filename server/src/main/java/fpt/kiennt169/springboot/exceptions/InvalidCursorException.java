@@ -0,0 +1,18 @@
+package fpt.kiennt169.springboot.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCursorException extends BaseException {
+    
+    private static final String ERROR_CODE = "INVALID_CURSOR";
+    private static final String MESSAGE_KEY = "error.scroll.cursor.invalid";
+    
+    public InvalidCursorException() {
+        super(
+            "Cursor is malformed or was issued for a different sort",
+            HttpStatus.BAD_REQUEST,
+            ERROR_CODE,
+            MESSAGE_KEY
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package fpt.kiennt169.springboot.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.UUID;
+
+public class InvalidExamAttemptException extends BaseException {
+    
+    private static final String ERROR_CODE = "INVALID_EXAM_ATTEMPT";
+    private static final String MESSAGE_KEY = "error.exam.invalid_attempt";
+    
+    public InvalidExamAttemptException(UUID attemptId) {
+        super(
+            String.format("Exam attempt is invalid or already submitted: %s", attemptId),
+            HttpStatus.BAD_REQUEST,
+            ERROR_CODE,
+            MESSAGE_KEY,
+            attemptId
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package fpt.kiennt169.springboot.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class LoginLockedException extends BaseException {
+    
+    private static final String ERROR_CODE = "LOGIN_LOCKED";
+    private static final String MESSAGE_KEY = "error.auth.locked";
+    
+    public LoginLockedException(long retryAfterSeconds) {
+        super(
+            String.format("Login temporarily locked (retry after %ds)", retryAfterSeconds),
+            HttpStatus.TOO_MANY_REQUESTS,
+            ERROR_CODE,
+            MESSAGE_KEY,
+            retryAfterSeconds
+        );
+    }
+}
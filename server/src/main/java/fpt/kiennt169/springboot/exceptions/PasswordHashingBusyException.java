@@ -0,0 +1,19 @@
+package fpt.kiennt169.springboot.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class PasswordHashingBusyException extends BaseException {
+    
+    private static final String ERROR_CODE = "PASSWORD_HASHING_BUSY";
+    private static final String MESSAGE_KEY = "error.auth.busy";
+    
+    public PasswordHashingBusyException(int queued) {
+        super(
+            String.format("Password hashing queue is full (queued: %d)", queued),
+            HttpStatus.SERVICE_UNAVAILABLE,
+            ERROR_CODE,
+            MESSAGE_KEY,
+            queued
+        );
+    }
+}
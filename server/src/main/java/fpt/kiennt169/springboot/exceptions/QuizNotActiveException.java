@@ -0,0 +1,21 @@
+package fpt.kiennt169.springboot.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.UUID;
+
+public class QuizNotActiveException extends BaseException {
+    
+    private static final String ERROR_CODE = "QUIZ_NOT_ACTIVE";
+    private static final String MESSAGE_KEY = "error.quiz.not_active";
+    
+    public QuizNotActiveException(UUID quizId) {
+        super(
+            String.format("Quiz is not active or has no questions: %s", quizId),
+            HttpStatus.BAD_REQUEST,
+            ERROR_CODE,
+            MESSAGE_KEY,
+            quizId
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package fpt.kiennt169.springboot.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class SubmissionQueueFullException extends BaseException {
+    
+    private static final String ERROR_CODE = "SUBMISSION_QUEUE_FULL";
+    private static final String MESSAGE_KEY = "error.exam.queue_full";
+    
+    public SubmissionQueueFullException(long backlog) {
+        super(
+            String.format("Submission queue is full (backlog: %d)", backlog),
+            HttpStatus.SERVICE_UNAVAILABLE,
+            ERROR_CODE,
+            MESSAGE_KEY,
+            backlog
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package fpt.kiennt169.springboot.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class UnsupportedSortException extends BaseException {
+    
+    private static final String ERROR_CODE = "UNSUPPORTED_SORT";
+    private static final String MESSAGE_KEY = "error.scroll.sort.unsupported";
+    
+    public UnsupportedSortException(String property) {
+        super(
+            String.format("'%s' cannot be used to sort a scroll", property),
+            HttpStatus.BAD_REQUEST,
+            ERROR_CODE,
+            MESSAGE_KEY,
+            property
+        );
+    }
+}
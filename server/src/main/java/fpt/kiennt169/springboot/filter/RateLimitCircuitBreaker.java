@@ -0,0 +1,127 @@
+package fpt.kiennt169.springboot.filter;
+
+import fpt.kiennt169.springboot.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker around the distributed rate limit check.
+ *
+ * After {@code rate-limit.breaker.failure-threshold} consecutive slow or failed Redis
+ * calls the breaker opens and requests are limited by node-local buckets. Once
+ * {@code rate-limit.breaker.open-duration} has passed, a single probe request is sent to
+ * Redis; it closes the breaker on success and re-opens it on failure.
+ */
+@Slf4j
+@Component
+public class RateLimitCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final RateLimitProperties.Breaker properties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private volatile long openedAtMillis;
+
+    public RateLimitCircuitBreaker(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+        this.properties = rateLimitProperties.getBreaker();
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("rate.limit.breaker.state", state, s -> s.get().ordinal())
+                .description("Rate limit circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether this call should go to Redis. In HALF_OPEN only one probe is let through;
+     * a caller that gets true must report back with {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public boolean allowRequest() {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        switch (state.get()) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAtMillis < properties.getOpenDuration().toMillis()) {
+                    return false;
+                }
+                transition(State.OPEN, State.HALF_OPEN);
+                return probeInFlight.compareAndSet(false, true);
+            default:
+                return probeInFlight.compareAndSet(false, true);
+        }
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.get() == State.HALF_OPEN) {
+            transition(State.HALF_OPEN, State.CLOSED);
+            probeInFlight.set(false);
+        }
+    }
+
+    public void onFailure() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (state.get() == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+            probeInFlight.set(false);
+        } else if (consecutiveFailures.incrementAndGet() >= properties.getFailureThreshold()) {
+            open(State.CLOSED);
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public Instant getOpenedAt() {
+        return openedAtMillis == 0 ? null : Instant.ofEpochMilli(openedAtMillis);
+    }
+
+    private void open(State from) {
+        int failures = consecutiveFailures.getAndSet(0);
+        if (state.get() != from) {
+            return;
+        }
+        openedAtMillis = System.currentTimeMillis();
+        if (transition(from, State.OPEN)) {
+            log.warn("Rate limit circuit opened after {} failed or slow Redis calls; limiting locally for {}",
+                Math.max(failures, 1), properties.getOpenDuration());
+        }
+    }
+
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
+        if (to == State.CLOSED) {
+            log.info("Rate limit circuit closed; Redis limiting resumed");
+        }
+        Counter.builder("rate.limit.breaker.transitions")
+                .description("Rate limit circuit breaker state changes")
+                .tag("from", from.name())
+                .tag("to", to.name())
+                .register(meterRegistry)
+                .increment();
+        return true;
+    }
+}
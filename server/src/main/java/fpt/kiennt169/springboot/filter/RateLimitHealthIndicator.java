@@ -0,0 +1,29 @@
+package fpt.kiennt169.springboot.filter;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.health.contributor.AbstractHealthIndicator;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports which limiter is in use. An open breaker does not take the service down;
+ * requests are still served and limited per node.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitHealthIndicator extends AbstractHealthIndicator {
+
+    private final RateLimitCircuitBreaker circuitBreaker;
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        RateLimitCircuitBreaker.State state = circuitBreaker.getState();
+        builder.up()
+                .withDetail("breaker", state.name())
+                .withDetail("limiter", state == RateLimitCircuitBreaker.State.CLOSED ? "distributed" : "local")
+                .withDetail("consecutiveFailures", circuitBreaker.getConsecutiveFailures());
+        if (circuitBreaker.getOpenedAt() != null) {
+            builder.withDetail("lastOpenedAt", circuitBreaker.getOpenedAt().toString());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package fpt.kiennt169.springboot.filter;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Path-segment trie of rate limit policies.
+ *
+ * Patterns are split on {@code /}; a {@code *} segment matches any single segment and a
+ * trailing {@code **} matches zero or more. When several patterns match a request, the
+ * one inserted first wins, so insertion order is policy priority.
+ *
+ * @param <T> the policy type
+ */
+final class RateLimitPolicyTrie<T> {
+
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_TAIL = "**";
+
+    private final Node<T> root = new Node<>();
+    private int size;
+
+    /**
+     * Add a pattern with lower priority than every pattern added before it
+     *
+     * @param pattern the path pattern, e.g. {@code /api/v1/exam/*}
+     * @param methods HTTP methods the pattern applies to; empty for all
+     * @param policy the policy to return on a match
+     * @throws IllegalArgumentException if {@code **} is not the last segment
+     */
+    void insert(String pattern, Set<String> methods, T policy) {
+        String[] segments = split(pattern);
+        Node<T> node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (ANY_TAIL.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' must be the last segment of " + pattern);
+                }
+                node.tail = Entry.merge(node.tail, new Entry<>(size++, methods, policy));
+                return;
+            }
+            node = ANY_SEGMENT.equals(segment)
+                    ? (node.wildcard != null ? node.wildcard : (node.wildcard = new Node<>()))
+                    : node.children.computeIfAbsent(segment, s -> new Node<>());
+        }
+        node.terminal = Entry.merge(node.terminal, new Entry<>(size++, methods, policy));
+    }
+
+    /**
+     * Find the highest-priority policy matching a request
+     *
+     * @param method the HTTP method
+     * @param path the request path
+     * @return the policy, or null if none matches
+     */
+    T match(String method, String path) {
+        Entry<T> best = match(root, split(path), 0, method.toUpperCase(Locale.ROOT), null);
+        return best != null ? best.policy : null;
+    }
+
+    private Entry<T> match(Node<T> node, String[] segments, int index, String method, Entry<T> best) {
+        best = Entry.better(best, node.tail, method);
+        if (index == segments.length) {
+            return Entry.better(best, node.terminal, method);
+        }
+        Node<T> child = node.children.get(segments[index]);
+        if (child != null) {
+            best = match(child, segments, index + 1, method, best);
+        }
+        if (node.wildcard != null) {
+            best = match(node.wildcard, segments, index + 1, method, best);
+        }
+        return best;
+    }
+
+    private static String[] split(String path) {
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return start == end ? new String[0] : path.substring(start, end).split("/+");
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> children = new HashMap<>();
+        private Node<T> wildcard;
+        private Entry<T> terminal;
+        private Entry<T> tail;
+    }
+
+    /**
+     * Patterns ending on the same node are chained in priority order.
+     */
+    private record Entry<T>(int order, Set<String> methods, T policy, Entry<T> next) {
+
+        Entry(int order, Set<String> methods, T policy) {
+            this(order, methods, policy, null);
+        }
+
+        static <T> Entry<T> merge(Entry<T> head, Entry<T> added) {
+            if (head == null) {
+                return added;
+            }
+            return new Entry<>(head.order, head.methods, head.policy, merge(head.next, added));
+        }
+
+        static <T> Entry<T> better(Entry<T> best, Entry<T> candidates, String method) {
+            for (Entry<T> entry = candidates; entry != null; entry = entry.next) {
+                if (best != null && best.order < entry.order) {
+                    return best;
+                }
+                if (entry.methods.isEmpty() || entry.methods.contains(method)) {
+                    return entry;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -1,111 +1,376 @@
 package fpt.kiennt169.springboot.filter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
 import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.OptimizationListener;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import fpt.kiennt169.springboot.config.RateLimitProperties;
+import fpt.kiennt169.springboot.constants.Constants;
+import fpt.kiennt169.springboot.enums.RateLimitKeyEnum;
+import fpt.kiennt169.springboot.services.TokenService;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+/**
+ * Policy-driven token-bucket rate limiting backed by Bucket4j on Redis.
+ *
+ * Each request is matched against the configured {@code rate-limit.policies} and then the
+ * auth and api limits, compiled once into a {@link RateLimitPolicyTrie}. The matching
+ * policy decides the bucket key (IP, JWT subject or both), its bandwidths and the tokens
+ * a call costs.
+ *
+ * In hybrid mode each node keeps a bucket proxy per client that consumes locally and
+ * synchronizes with the shared Redis bucket only after {@code rate-limit.hybrid.sync-tokens}
+ * tokens or {@code rate-limit.hybrid.sync-interval}, whichever comes first.
+ *
+ * The Redis check runs within {@code rate-limit.breaker.timeout}. Slow or failed checks
+ * feed a {@link RateLimitCircuitBreaker}; while it is open, requests are limited by
+ * node-local buckets instead of waiting on Redis.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class RateLimitingFilter extends OncePerRequestFilter {
 
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private static final String AUTH_POLICY = "auth";
+    private static final String API_POLICY = "api";
+
     private final ProxyManager<String> proxyManager;
     private final RateLimitProperties rateLimitProperties;
+    private final TokenService tokenService;
+    private final RateLimitCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    private RateLimitPolicyTrie<ResolvedPolicy> policies;
+    private Cache<String, AsyncBucketProxy> remoteBuckets;
+    private Cache<String, Bucket> fallbackBuckets;
+    private OptimizationListener optimizationListener;
+    private Counter fallbackChecks;
+
+    private record ResolvedPolicy(
+        String name,
+        boolean enabled,
+        RateLimitKeyEnum key,
+        int cost,
+        BucketConfiguration configuration,
+        Supplier<CompletableFuture<BucketConfiguration>> remoteConfiguration,
+        Optimization optimization,
+        Counter denied
+    ) {}
+
+    @PostConstruct
+    void init() {
+        RateLimitProperties.Breaker breaker = rateLimitProperties.getBreaker();
+        fallbackBuckets = Caffeine.newBuilder()
+                .maximumSize(breaker.getMaxLocalBuckets())
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .build();
+        fallbackChecks = Counter.builder("rate.limit.fallback.checks")
+                .description("Rate limit checks answered by node-local buckets while Redis was unavailable")
+                .register(meterRegistry);
+
+        RateLimitProperties.Hybrid hybrid = rateLimitProperties.getHybrid();
+        if (hybrid.isEnabled()) {
+            remoteBuckets = Caffeine.newBuilder()
+                    .maximumSize(hybrid.getMaxBuckets())
+                    .expireAfterAccess(hybrid.getBucketIdleTtl())
+                    .build();
+            optimizationListener = hybridListener();
+
+            log.info("Hybrid rate limiting enabled - sync every {} tokens or {}",
+                hybrid.getSyncTokens(), hybrid.getSyncInterval());
+        }
+
+        policies = new RateLimitPolicyTrie<>();
+        for (RateLimitProperties.Policy policy : rateLimitProperties.getPolicies()) {
+            register(policy);
+        }
+        register(authPolicy());
+        register(apiPolicy());
+
+        log.info("Rate limiting initialized with {} policies", rateLimitProperties.getPolicies().size() + 2);
+    }
 
     @Override
-    protected void doFilterInternal(HttpServletRequest request, 
-                                   HttpServletResponse response, 
+    protected void doFilterInternal(HttpServletRequest request,
+                                   HttpServletResponse response,
                                    FilterChain filterChain) throws ServletException, IOException {
-        
+
         String path = request.getRequestURI();
-        
+
         if (shouldSkipRateLimit(path)) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        boolean isAuth = isAuthEndpoint(path);
-        Object configObj = isAuth ? rateLimitProperties.getAuth() : rateLimitProperties.getApi();
-        String bucketKeyPrefix = isAuth ? "rate_limit:auth:" : "rate_limit:api:";
-        
-        boolean isEnabled = isAuth 
-            ? rateLimitProperties.getAuth().isEnabled() 
-            : rateLimitProperties.getApi().isEnabled();
-            
-        if (!isEnabled) {
+        ResolvedPolicy policy = policies.match(request.getMethod(), path);
+        if (policy == null || !policy.enabled()) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String clientId = getClientIP(request);
-        String bucketKey = bucketKeyPrefix + clientId;
-
-        Bucket bucket = proxyManager.builder().build(bucketKey, getBucketConfiguration(configObj, isAuth));
+        String clientId = resolveClientKey(policy.key(), request);
+        ConsumptionProbe probe = consume("rate_limit:" + policy.name() + ":" + clientId, policy);
+        response.setHeader(REMAINING_HEADER, String.valueOf(probe.getRemainingTokens()));
 
-        if (bucket.tryConsume(1)) {
+        if (probe.isConsumed()) {
             filterChain.doFilter(request, response);
         } else {
-            log.warn("Rate limit exceeded for client: {} on path: {}", clientId, path);
-            
-            int refillPeriodMinutes = isAuth 
-                ? rateLimitProperties.getAuth().getRefillPeriodMinutes()
-                : rateLimitProperties.getApi().getRefillPeriodMinutes();
-            
-            response.setStatus(429); 
+            policy.denied().increment();
+            log.warn("Rate limit exceeded for client: {} on path: {} (policy: {})", clientId, path, policy.name());
+
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill() + 999_999_999L));
+
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
             response.setContentType("application/json");
             response.getWriter().write(String.format(
                 "{\"error\":\"Rate limit exceeded\",\"message\":\"Too many requests. Please try again later.\",\"retryAfter\":%d}",
-                refillPeriodMinutes * 60
+                retryAfterSeconds
             ));
         }
     }
 
-    private Supplier<BucketConfiguration> getBucketConfiguration(Object config, boolean isAuth) {
-        return () -> {
-            int capacity;
-            int refillTokens;
-            int refillPeriodMinutes;
-            
-            if (isAuth) {
-                RateLimitProperties.AuthRateLimit authConfig = (RateLimitProperties.AuthRateLimit) config;
-                capacity = authConfig.getCapacity();
-                refillTokens = authConfig.getRefillTokens();
-                refillPeriodMinutes = authConfig.getRefillPeriodMinutes();
-            } else {
-                RateLimitProperties.ApiRateLimit apiConfig = (RateLimitProperties.ApiRateLimit) config;
-                capacity = apiConfig.getCapacity();
-                refillTokens = apiConfig.getRefillTokens();
-                refillPeriodMinutes = apiConfig.getRefillPeriodMinutes();
+    private void register(RateLimitProperties.Policy policy) {
+        if (!StringUtils.hasText(policy.getName()) || policy.getPaths().isEmpty()) {
+            throw new IllegalStateException("Rate limit policy needs a name and at least one path");
+        }
+        if (policy.isEnabled() && (policy.getLimits().isEmpty() || policy.getCost() < 1)) {
+            throw new IllegalStateException("Rate limit policy '" + policy.getName() + "' needs limits and a positive cost");
+        }
+
+        ResolvedPolicy resolved = resolve(policy);
+        Set<String> methods = policy.getMethods().stream()
+                .map(method -> method.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        for (String path : policy.getPaths()) {
+            policies.insert(path, methods, resolved);
+        }
+    }
+
+    private ResolvedPolicy resolve(RateLimitProperties.Policy policy) {
+        if (!policy.isEnabled()) {
+            return new ResolvedPolicy(policy.getName(), false, policy.getKey(), 0, null, null, null, null);
+        }
+
+        ConfigurationBuilder builder = BucketConfiguration.builder();
+        int smallestCapacity = Integer.MAX_VALUE;
+        for (RateLimitProperties.Limit limit : policy.getLimits()) {
+            builder.addLimit(Bandwidth.builder()
+                    .capacity(limit.getCapacity())
+                    .refillIntervally(limit.getRefillTokens(), limit.getRefillPeriod())
+                    .build());
+            smallestCapacity = Math.min(smallestCapacity, limit.getCapacity());
+        }
+        BucketConfiguration configuration = builder.build();
+
+        Counter denied = Counter.builder("rate.limit.denied")
+                .description("Requests rejected by a rate limit policy")
+                .tag("policy", policy.getName())
+                .register(meterRegistry);
+
+        Optimization optimization = optimizationListener != null
+                ? delaying(smallestCapacity, rateLimitProperties.getHybrid()).withListener(optimizationListener)
+                : null;
+
+        CompletableFuture<BucketConfiguration> remoteConfiguration = CompletableFuture.completedFuture(configuration);
+
+        return new ResolvedPolicy(policy.getName(), true, policy.getKey(), policy.getCost(),
+                configuration, () -> remoteConfiguration, optimization, denied);
+    }
+
+    private RateLimitProperties.Policy authPolicy() {
+        RateLimitProperties.AuthRateLimit auth = rateLimitProperties.getAuth();
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName(AUTH_POLICY);
+        policy.setEnabled(auth.isEnabled());
+        policy.setPaths(List.of("/api/v1/auth/login/**", "/api/v1/auth/register/**"));
+        policy.setKey(RateLimitKeyEnum.IP);
+        policy.setLimits(List.of(limit(auth.getCapacity(), auth.getRefillTokens(), auth.getRefillPeriodMinutes())));
+        return policy;
+    }
+
+    private RateLimitProperties.Policy apiPolicy() {
+        RateLimitProperties.ApiRateLimit api = rateLimitProperties.getApi();
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName(API_POLICY);
+        policy.setEnabled(api.isEnabled());
+        policy.setPaths(List.of("/**"));
+        policy.setKey(api.getKey());
+        policy.setLimits(List.of(limit(api.getCapacity(), api.getRefillTokens(), api.getRefillPeriodMinutes())));
+        return policy;
+    }
+
+    private RateLimitProperties.Limit limit(int capacity, int refillTokens, int refillPeriodMinutes) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setRefillTokens(refillTokens);
+        limit.setRefillPeriod(Duration.ofMinutes(refillPeriodMinutes));
+        return limit;
+    }
+
+    /**
+     * Consume from the shared bucket within the latency budget, or from a node-local
+     * bucket when the breaker is open or Redis does not answer in time.
+     */
+    private ConsumptionProbe consume(String bucketKey, ResolvedPolicy policy) {
+        if (!circuitBreaker.allowRequest()) {
+            return consumeLocally(bucketKey, policy);
+        }
+
+        // The half-open probe has to reach Redis; a hybrid proxy may answer it from local state
+        boolean halfOpen = circuitBreaker.getState() == RateLimitCircuitBreaker.State.HALF_OPEN;
+        CompletableFuture<ConsumptionProbe> pending;
+        try {
+            pending = resolveBucket(bucketKey, policy, halfOpen).tryConsumeAndReturnRemaining(policy.cost());
+        } catch (Exception e) {
+            return fallBack(bucketKey, policy, e);
+        }
+
+        if (!rateLimitProperties.getBreaker().isEnabled()) {
+            return pending.join();
+        }
+        try {
+            ConsumptionProbe probe = pending.get(rateLimitProperties.getBreaker().getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess();
+            return probe;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallBack(bucketKey, policy, e);
+        } catch (TimeoutException | ExecutionException e) {
+            return fallBack(bucketKey, policy, e);
+        }
+    }
+
+    private ConsumptionProbe fallBack(String bucketKey, ResolvedPolicy policy, Exception cause) {
+        circuitBreaker.onFailure();
+        log.debug("Distributed rate limit check failed for {}: {}", bucketKey, cause.toString());
+        return consumeLocally(bucketKey, policy);
+    }
+
+    private ConsumptionProbe consumeLocally(String bucketKey, ResolvedPolicy policy) {
+        fallbackChecks.increment();
+        Bucket bucket = fallbackBuckets.get(bucketKey, key -> {
+            var builder = Bucket.builder();
+            for (Bandwidth bandwidth : policy.configuration().getBandwidths()) {
+                builder.addLimit(bandwidth);
+            }
+            return builder.build();
+        });
+        return bucket.tryConsumeAndReturnRemaining(policy.cost());
+    }
+
+    private AsyncBucketProxy resolveBucket(String bucketKey, ResolvedPolicy policy, boolean unoptimized) {
+        if (remoteBuckets == null || unoptimized) {
+            return proxyManager.asAsync().builder().build(bucketKey, policy.remoteConfiguration());
+        }
+        return remoteBuckets.get(bucketKey, key -> proxyManager.asAsync().builder()
+                .withOptimization(policy.optimization())
+                .build(key, policy.remoteConfiguration()));
+    }
+
+    /**
+     * Small limits get a proportionally small unsynchronized allowance so the
+     * per-node overshoot stays within a tenth of the capacity.
+     */
+    private Optimization delaying(int capacity, RateLimitProperties.Hybrid hybrid) {
+        long maxUnsynchronizedTokens = Math.max(1, Math.min(hybrid.getSyncTokens(), capacity / 10));
+        return Optimizations.delaying(new DelayParameters(maxUnsynchronizedTokens, hybrid.getSyncInterval()));
+    }
+
+    private OptimizationListener hybridListener() {
+        Counter local = Counter.builder("rate.limit.hybrid.commands")
+                .description("Rate limit checks answered locally or merged into a Redis sync")
+                .tag("result", "local")
+                .register(meterRegistry);
+        Counter merged = Counter.builder("rate.limit.hybrid.commands")
+                .description("Rate limit checks answered locally or merged into a Redis sync")
+                .tag("result", "merged")
+                .register(meterRegistry);
+
+        return new OptimizationListener() {
+            @Override
+            public void incrementMergeCount(int count) {
+                merged.increment(count);
+            }
+
+            @Override
+            public void incrementSkipCount(int count) {
+                local.increment(count);
             }
-            
-            Bandwidth limit = Bandwidth.builder()
-                    .capacity(capacity)
-                    .refillIntervally(refillTokens, Duration.ofMinutes(refillPeriodMinutes))
-                    .build();
-            
-            return BucketConfiguration.builder()
-                    .addLimit(limit)
-                    .build();
         };
     }
 
-    private boolean isAuthEndpoint(String path) {
-        return path.startsWith("/api/v1/auth/login") || 
-               path.startsWith("/api/v1/auth/register");
+    private String resolveClientKey(RateLimitKeyEnum key, HttpServletRequest request) {
+        return switch (key) {
+            case IP -> getClientIP(request);
+            case USER -> {
+                String subject = getSubject(request);
+                yield subject != null ? "user:" + subject : "anonymous";
+            }
+            case USER_OR_IP -> {
+                String subject = getSubject(request);
+                yield subject != null ? "user:" + subject : "ip:" + getClientIP(request);
+            }
+            case IP_AND_USER -> {
+                String subject = getSubject(request);
+                yield "ip:" + getClientIP(request) + ":user:" + (subject != null ? subject : "-");
+            }
+        };
+    }
+
+    /**
+     * Subject of a valid bearer token. Goes through the token service so that forged
+     * tokens cannot mint fresh buckets; repeat calls are served from its verified-token cache.
+     */
+    private String getSubject(HttpServletRequest request) {
+        String bearerToken = request.getHeader(Constants.AUTHORIZATION_HEADER);
+        if (!StringUtils.hasText(bearerToken) || !bearerToken.startsWith(Constants.TOKEN_PREFIX)) {
+            return null;
+        }
+        try {
+            Authentication authentication = tokenService.getAuthenticationFromToken(
+                    bearerToken.substring(Constants.TOKEN_PREFIX.length()));
+            return authentication != null ? authentication.getName() : null;
+        } catch (Exception e) {
+            log.debug("Cannot resolve rate limit subject: {}", e.getMessage());
+            return null;
+        }
     }
 
     private boolean shouldSkipRateLimit(String path) {
@@ -0,0 +1,18 @@
+package fpt.kiennt169.springboot.grading;
+
+import fpt.kiennt169.springboot.enums.QuestionTypeEnum;
+
+import java.util.UUID;
+
+/**
+ * Flat projection row used to compile a {@link QuizGradingKey} without hydrating
+ * Question/Answer entities. One row per (question, answer) pair; {@code answerId}
+ * is null for questions that have no answers.
+ */
+public record AnswerKeyRow(
+    UUID questionId,
+    QuestionTypeEnum type,
+    Integer score,
+    UUID answerId,
+    Boolean correct
+) {}
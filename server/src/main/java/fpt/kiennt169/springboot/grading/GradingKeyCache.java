@@ -0,0 +1,118 @@
+package fpt.kiennt169.springboot.grading;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fpt.kiennt169.springboot.exceptions.ResourceNotFoundException;
+import fpt.kiennt169.springboot.repositories.QuizRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of compiled {@link QuizGradingKey}s.
+ *
+ * Keys are compiled from a single projection query on first use and dropped whenever
+ * the quiz or one of its questions changes. Evictions run after the surrounding
+ * transaction commits and are broadcast to other nodes over a Redis topic. Every
+ * eviction bumps a generation; a compile that overlapped one may have read the old rows,
+ * so its result is served to its caller but not kept.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GradingKeyCache {
+
+    private static final String INVALIDATION_TOPIC = "quizzes:grading-key:invalidate";
+
+    private final QuizRepository quizRepository;
+    private final RedissonClient redissonClient;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${exam.grading-key.max-entries:1000}")
+    private int maxEntries;
+
+    private Cache<UUID, QuizGradingKey> keys;
+
+    @PostConstruct
+    void subscribe() {
+        keys = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .build();
+        redissonClient.getTopic(INVALIDATION_TOPIC).addListener(String.class, (channel, quizId) -> {
+            invalidate(UUID.fromString(quizId));
+            log.debug("Grading key invalidated by peer for quiz: {}", quizId);
+        });
+    }
+
+    /**
+     * Get the compiled grading key for a quiz, compiling it on a miss.
+     * Concurrent misses for the same quiz share one compilation.
+     *
+     * @param quizId the quiz ID
+     * @return the compiled grading key
+     * @throws ResourceNotFoundException if the quiz does not exist
+     */
+    public QuizGradingKey get(UUID quizId) {
+        QuizGradingKey key = keys.getIfPresent(quizId);
+        if (key != null) {
+            return key;
+        }
+        long compiledAt = generation.get();
+        key = keys.get(quizId, this::compile);
+        if (generation.get() != compiledAt) {
+            keys.asMap().remove(quizId, key);
+        }
+        return key;
+    }
+
+    /**
+     * Drop the grading key of a quiz on this node and on all peers.
+     * Deferred until after commit when called inside a transaction.
+     *
+     * @param quizId the quiz ID
+     */
+    public void evict(UUID quizId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(quizId);
+                }
+            });
+        } else {
+            doEvict(quizId);
+        }
+    }
+
+    private void doEvict(UUID quizId) {
+        invalidate(quizId);
+        try {
+            redissonClient.getTopic(INVALIDATION_TOPIC).publish(quizId.toString());
+        } catch (Exception e) {
+            log.warn("Failed to broadcast grading key invalidation for quiz {}: {}", quizId, e.getMessage());
+        }
+    }
+
+    private void invalidate(UUID quizId) {
+        generation.incrementAndGet();
+        keys.invalidate(quizId);
+    }
+
+    private QuizGradingKey compile(UUID quizId) {
+        boolean active = quizRepository.findActiveById(quizId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz", "id", quizId));
+
+        QuizGradingKey key = QuizGradingKey.compile(quizId, active, quizRepository.findAnswerKeyRows(quizId));
+        log.debug("Compiled grading key for quiz: {} ({} questions)", quizId, key.getQuestionCount());
+        return key;
+    }
+}
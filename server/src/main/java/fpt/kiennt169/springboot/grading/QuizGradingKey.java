@@ -0,0 +1,192 @@
+package fpt.kiennt169.springboot.grading;
+
+import fpt.kiennt169.springboot.dtos.submissions.ExamSubmissionRequestDTO;
+import fpt.kiennt169.springboot.enums.QuestionTypeEnum;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable, compiled answer key for one quiz.
+ *
+ * Questions are mapped to dense indexes and answers to per-question ordinals, so the
+ * correct options of a question fit in a single {@code long} bitmask. Grading a
+ * submission is then a handful of map lookups and bit operations per answer.
+ */
+public final class QuizGradingKey {
+
+    static final int MAX_ANSWERS_PER_QUESTION = Long.SIZE;
+
+    private static final int ORDINAL_BITS = 6;
+    private static final int ORDINAL_MASK = (1 << ORDINAL_BITS) - 1;
+
+    private final UUID quizId;
+    private final boolean active;
+    private final Map<UUID, Integer> questionIndexes;
+    private final Map<UUID, Integer> answerSlots;
+    private final long[] correctMasks;
+    private final int[] scores;
+    private final boolean[] singleChoice;
+    private final double totalScore;
+
+    private QuizGradingKey(UUID quizId, boolean active, Map<UUID, Integer> questionIndexes,
+                           Map<UUID, Integer> answerSlots, long[] correctMasks,
+                           int[] scores, boolean[] singleChoice) {
+        this.quizId = quizId;
+        this.active = active;
+        this.questionIndexes = questionIndexes;
+        this.answerSlots = answerSlots;
+        this.correctMasks = correctMasks;
+        this.scores = scores;
+        this.singleChoice = singleChoice;
+
+        double total = 0.0;
+        for (int score : scores) {
+            total += score;
+        }
+        this.totalScore = total;
+    }
+
+    /**
+     * Compile a grading key from flat answer-key rows
+     *
+     * @param quizId the quiz ID
+     * @param active whether the quiz is currently active
+     * @param rows one row per (question, answer) pair, in any order
+     * @return the compiled key
+     */
+    public static QuizGradingKey compile(UUID quizId, boolean active, List<AnswerKeyRow> rows) {
+        Map<UUID, Integer> questionIndexes = new HashMap<>();
+        Map<UUID, Integer> answerSlots = new HashMap<>();
+        int[] answerCounts = new int[rows.size()];
+        long[] correctMasks = new long[rows.size()];
+        int[] scores = new int[rows.size()];
+        boolean[] singleChoice = new boolean[rows.size()];
+
+        for (AnswerKeyRow row : rows) {
+            Integer index = questionIndexes.get(row.questionId());
+            if (index == null) {
+                index = questionIndexes.size();
+                questionIndexes.put(row.questionId(), index);
+                scores[index] = row.score();
+                singleChoice[index] = row.type() == QuestionTypeEnum.SINGLE_CHOICE;
+            }
+
+            if (row.answerId() == null || answerSlots.containsKey(row.answerId())) {
+                continue;
+            }
+
+            int ordinal = answerCounts[index]++;
+            if (ordinal >= MAX_ANSWERS_PER_QUESTION) {
+                throw new IllegalStateException(
+                    "Question " + row.questionId() + " has more than " + MAX_ANSWERS_PER_QUESTION + " answers");
+            }
+            answerSlots.put(row.answerId(), (index << ORDINAL_BITS) | ordinal);
+            if (Boolean.TRUE.equals(row.correct())) {
+                correctMasks[index] |= 1L << ordinal;
+            }
+        }
+
+        int questionCount = questionIndexes.size();
+        return new QuizGradingKey(
+            quizId,
+            active,
+            Map.copyOf(questionIndexes),
+            Map.copyOf(answerSlots),
+            Arrays.copyOf(correctMasks, questionCount),
+            Arrays.copyOf(scores, questionCount),
+            Arrays.copyOf(singleChoice, questionCount)
+        );
+    }
+
+    /**
+     * Score a submission against this key.
+     *
+     * SINGLE_CHOICE questions need exactly one submitted answer that is correct;
+     * MULTIPLE_CHOICE questions need the submitted set to equal the correct set.
+     * Unknown question IDs are ignored.
+     *
+     * @param answers the submitted question-answer pairs
+     * @return the achieved score
+     */
+    public double score(List<ExamSubmissionRequestDTO.QuestionAnswerDTO> answers) {
+        int questionCount = scores.length;
+        long[] selected = new long[questionCount];
+        int[] submittedSizes = new int[questionCount];
+        boolean[] seen = new boolean[questionCount];
+        boolean[] foreign = new boolean[questionCount];
+
+        for (ExamSubmissionRequestDTO.QuestionAnswerDTO answer : answers) {
+            Integer index = questionIndexes.get(answer.questionId());
+            if (index == null) {
+                continue;
+            }
+            if (seen[index]) {
+                throw new IllegalStateException("Duplicate question in submission: " + answer.questionId());
+            }
+            seen[index] = true;
+
+            List<UUID> answerIds = answer.answerIds();
+            submittedSizes[index] = answerIds.size();
+            for (UUID answerId : answerIds) {
+                Integer slot = answerSlots.get(answerId);
+                if (slot == null || (slot >>> ORDINAL_BITS) != index) {
+                    foreign[index] = true;
+                } else {
+                    selected[index] |= 1L << (slot & ORDINAL_MASK);
+                }
+            }
+        }
+
+        double achieved = 0.0;
+        for (int i = 0; i < questionCount; i++) {
+            boolean correct;
+            if (singleChoice[i]) {
+                correct = submittedSizes[i] == 1 && !foreign[i] && (selected[i] & correctMasks[i]) != 0;
+            } else {
+                correct = !foreign[i] && selected[i] == correctMasks[i];
+            }
+            if (correct) {
+                achieved += scores[i];
+            }
+        }
+        return achieved;
+    }
+
+    /**
+     * Reject submissions for quizzes that cannot be taken
+     *
+     * @throws IllegalStateException if the quiz is inactive or has no questions
+     */
+    public void ensureGradable() {
+        if (!active) {
+            throw new IllegalStateException("Quiz is not active");
+        }
+        if (scores.length == 0) {
+            throw new IllegalStateException("Quiz has no questions");
+        }
+    }
+
+    public boolean isPassing(double achievedScore, double passPercentage) {
+        return (achievedScore / totalScore) * 100.0 >= passPercentage;
+    }
+
+    public UUID getQuizId() {
+        return quizId;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public int getQuestionCount() {
+        return scores.length;
+    }
+
+    public double getTotalScore() {
+        return totalScore;
+    }
+}
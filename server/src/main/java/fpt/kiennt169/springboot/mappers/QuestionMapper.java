@@ -12,6 +12,9 @@ public interface QuestionMapper {
  
     @Mapping(target = "quizzes", expression = "java(mapQuizzesToDTO(question.getQuizzes()))")
     QuestionResponseDTO toResponseDTO(Question question);
+
+    @Mapping(target = "quizzes", source = "quizzes")
+    QuestionResponseDTO toResponseDTO(Question question, java.util.List<QuestionResponseDTO.QuizInfoDTO> quizzes);
  
     @Mapping(target = "quizzes", ignore = true)  
     @Mapping(target = "id", ignore = true)
@@ -1,12 +1,15 @@
 package fpt.kiennt169.springboot.mappers;
 
 import fpt.kiennt169.springboot.dtos.questions.QuestionResponseDTO;
+import fpt.kiennt169.springboot.dtos.quizzes.ExamPaperResponseDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizDetailResponseDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizRequestDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizResponseDTO;
 import fpt.kiennt169.springboot.entities.Question;
 import fpt.kiennt169.springboot.entities.Quiz;
+import fpt.kiennt169.springboot.util.ContentHashUtil;
 import org.mapstruct.*;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,6 +22,11 @@ public interface QuizMapper {
     @Mapping(target = "questions", expression = "java(mapQuestionsWithoutQuizzes(quiz.getQuestions()))")
     QuizDetailResponseDTO toDetailResponseDTO(Quiz quiz);
     
+    @Mapping(target = "quizId", source = "id")
+    @Mapping(target = "questions", expression = "java(mapExamQuestions(quiz.getQuestions()))")
+    @Mapping(target = "contentHash", ignore = true)
+    ExamPaperResponseDTO toExamPaperDTO(Quiz quiz);
+    
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "questions", ignore = true)
     @Mapping(target = "submissions", ignore = true)
@@ -54,4 +62,47 @@ public interface QuizMapper {
             ))
             .toList();
     }
+    
+    default List<ExamPaperResponseDTO.ExamQuestionDTO> mapExamQuestions(List<Question> questions) {
+        if (questions == null) {
+            return List.of();
+        }
+        return questions.stream()
+            .map(question -> new ExamPaperResponseDTO.ExamQuestionDTO(
+                question.getId(),
+                question.getContent(),
+                question.getType(),
+                question.getScore(),
+                question.getAnswers() != null
+                    ? question.getAnswers().stream()
+                        .map(answer -> new ExamPaperResponseDTO.ExamAnswerDTO(answer.getId(), answer.getContent()))
+                        .sorted(Comparator.comparing(ExamPaperResponseDTO.ExamAnswerDTO::id))
+                        .toList()
+                    : List.of()
+            ))
+            .toList();
+    }
+    
+    /**
+     * Hash of everything a taker sees on the paper. Questions are hashed in ID order so
+     * the hash does not change when the database returns them in a different order.
+     */
+    default String examPaperHash(ExamPaperResponseDTO paper) {
+        StringBuilder canonical = new StringBuilder()
+            .append(paper.getQuizId()).append('\n')
+            .append(paper.getTitle()).append('\n')
+            .append(paper.getDescription()).append('\n')
+            .append(paper.getDurationMinutes()).append('\n');
+        paper.getQuestions().stream()
+            .sorted(Comparator.comparing(ExamPaperResponseDTO.ExamQuestionDTO::id))
+            .forEach(question -> {
+                canonical.append(question.id()).append('\t')
+                    .append(question.type()).append('\t')
+                    .append(question.score()).append('\t')
+                    .append(question.content()).append('\n');
+                question.answers().forEach(answer ->
+                    canonical.append(answer.id()).append('\t').append(answer.content()).append('\n'));
+            });
+        return ContentHashUtil.hash(canonical.toString());
+    }
 }
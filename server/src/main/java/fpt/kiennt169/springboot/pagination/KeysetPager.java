@@ -0,0 +1,142 @@
+package fpt.kiennt169.springboot.pagination;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
+import fpt.kiennt169.springboot.exceptions.InvalidCursorException;
+import fpt.kiennt169.springboot.exceptions.UnsupportedSortException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset ("seek") pagination over Spring Data's scroll API.
+ *
+ * Each slice is read with {@code WHERE (sort keys) > (last row's keys) ... LIMIT size + 1},
+ * so deep slices cost the same as the first one and no count query is run. The sort is
+ * restricted to an entity's whitelisted non-null keys and always ends with {@code id},
+ * which makes the order total. The last row's keys travel to the client as an opaque
+ * Base64 cursor that also records the sort it belongs to.
+ */
+@Component
+public class KeysetPager {
+
+    public static final int MAX_SIZE = 100;
+
+    private static final String ID = "id";
+    private static final TypeReference<Map<String, Object>> CURSOR_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Read one slice
+     *
+     * @param repository the repository to scroll
+     * @param spec filters, or null for none
+     * @param sortKeys sortable properties and their types, excluding {@code id}
+     * @param sort the requested sort; every property must be in {@code sortKeys}
+     * @param cursor the cursor returned with the previous slice, or null for the first slice
+     * @param size slice size, capped at {@link #MAX_SIZE}
+     * @param mapper maps the slice's entities to response items, in order
+     * @throws UnsupportedSortException if the sort uses a property that is not a key
+     * @throws InvalidCursorException if the cursor cannot be read or belongs to another sort
+     */
+    public <E, D> CursorPageResponseDTO<D> scroll(JpaSpecificationExecutor<E> repository, Specification<E> spec,
+                                                  Map<String, Class<?>> sortKeys, Sort sort, String cursor,
+                                                  int size, Function<List<E>, List<D>> mapper) {
+        Sort keysetSort = keysetSort(sort, sortKeys);
+        ScrollPosition position = cursor == null || cursor.isBlank()
+                ? ScrollPosition.keyset()
+                : decode(cursor, keysetSort, sortKeys);
+        int limit = Math.clamp(size, 1, MAX_SIZE);
+
+        Specification<E> filter = spec != null ? spec : Specification.unrestricted();
+        Window<E> window = repository.findBy(filter, query -> query.sortBy(keysetSort).limit(limit).scroll(position));
+
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? encode((KeysetScrollPosition) window.positionAt(window.size() - 1), keysetSort)
+                : null;
+        return new CursorPageResponseDTO<>(
+                mapper.apply(window.getContent()),
+                limit,
+                window.hasNext(),
+                nextCursor
+        );
+    }
+
+    private static Sort keysetSort(Sort sort, Map<String, Class<?>> sortKeys) {
+        List<Sort.Order> orders = new ArrayList<>();
+        Sort.Direction last = Sort.Direction.ASC;
+        for (Sort.Order order : sort) {
+            if (ID.equals(order.getProperty())) {
+                continue;
+            }
+            if (!sortKeys.containsKey(order.getProperty())) {
+                throw new UnsupportedSortException(order.getProperty());
+            }
+            orders.add(new Sort.Order(order.getDirection(), order.getProperty()));
+            last = order.getDirection();
+        }
+        orders.add(new Sort.Order(last, ID));
+        return Sort.by(orders);
+    }
+
+    private String encode(KeysetScrollPosition position, Sort sort) {
+        Map<String, Object> cursor = new LinkedHashMap<>();
+        cursor.put("sort", signature(sort));
+        cursor.put("keys", position.getKeys());
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot encode scroll cursor", e);
+        }
+    }
+
+    private ScrollPosition decode(String token, Sort sort, Map<String, Class<?>> sortKeys) {
+        try {
+            Map<String, Object> cursor = objectMapper.readValue(Base64.getUrlDecoder().decode(token), CURSOR_TYPE);
+            if (!signature(sort).equals(cursor.get("sort")) || !(cursor.get("keys") instanceof Map<?, ?> raw)) {
+                throw new InvalidCursorException();
+            }
+
+            // JSON loses the key types; restore them so the seek predicate compares like with like
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (Sort.Order order : sort) {
+                Object value = raw.get(order.getProperty());
+                if (value == null) {
+                    throw new InvalidCursorException();
+                }
+                Class<?> type = ID.equals(order.getProperty()) ? UUID.class : sortKeys.get(order.getProperty());
+                keys.put(order.getProperty(), objectMapper.convertValue(value, type));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (InvalidCursorException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    private static String signature(Sort sort) {
+        return sort.stream()
+                .map(order -> order.getProperty() + ":" + order.getDirection())
+                .collect(Collectors.joining(","));
+    }
+}
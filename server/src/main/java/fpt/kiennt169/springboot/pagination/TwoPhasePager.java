@@ -0,0 +1,110 @@
+package fpt.kiennt169.springboot.pagination;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Paging for reads that fetch collections.
+ *
+ * Fetching a collection together with LIMIT/OFFSET makes Hibernate load every matching
+ * row and slice the page in memory (HHH90003004). This pages in two queries instead:
+ * first the ids of the page, with the specification, sort, offset and limit applied in
+ * SQL, then the entities and their collections for just those ids, put back in page
+ * order. Memory and latency then depend on the page size, not on how many rows match.
+ * The second query may also select projection rows instead of entities.
+ * As with Spring Data, the count query is skipped when the page already shows the total.
+ */
+@Component
+public class TwoPhasePager {
+
+    private static final String ID = "id";
+
+    private EntityManager entityManager;
+
+    @PersistenceContext
+    void setEntityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Read one page
+     *
+     * @param type the entity type
+     * @param spec filters, or null for none
+     * @param pageable page, size and sort
+     * @param fetch loads the entities, with their collections, or projection rows for a list of ids
+     * @param idOf the id of a loaded item
+     * @return the page, in the requested order
+     */
+    public <T, R> Page<R> page(Class<T> type, Specification<T> spec, Pageable pageable,
+                               Function<Collection<UUID>, List<R>> fetch, Function<R, UUID> idOf) {
+        Page<UUID> ids = findIds(type, spec, pageable);
+        List<R> items = ids.hasContent() ? fetch.apply(ids.getContent()) : List.of();
+        return inOrder(ids, items, idOf);
+    }
+
+    /**
+     * Entities loaded for a page of ids, in the page's order; ids deleted in between are dropped
+     */
+    public static <T> Page<T> inOrder(Page<UUID> ids, List<T> entities, Function<T, UUID> idOf) {
+        Map<UUID, T> byId = entities.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> content = ids.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
+
+    private <T> Page<UUID> findIds(Class<T> type, Specification<T> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = cb.createQuery(UUID.class);
+        Root<T> root = query.from(type);
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get(ID));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<UUID> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(type, spec));
+    }
+
+    private <T> long count(Class<T> type, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -1,17 +1,18 @@
 package fpt.kiennt169.springboot.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import fpt.kiennt169.springboot.dtos.questions.QuestionQuizRow;
 import fpt.kiennt169.springboot.entities.Question;
 
 @Repository
@@ -21,8 +22,12 @@ public interface QuestionRepository extends JpaRepository<Question, UUID>, JpaSp
     Optional<Question> findById(UUID id);
 
     @EntityGraph(attributePaths = {"answers"})
-    Page<Question> findAll(Specification<Question> spec, Pageable pageable);
+    List<Question> findByQuizzesId(UUID quizId);
 
     @EntityGraph(attributePaths = {"answers"})
-    List<Question> findByQuizzesId(UUID quizId);
+    List<Question> findByIdIn(Collection<UUID> ids);
+
+    @Query("SELECT new fpt.kiennt169.springboot.dtos.questions.QuestionQuizRow(qs.id, q.id, q.title) " +
+           "FROM Quiz q JOIN q.questions qs WHERE qs.id IN :questionIds")
+    List<QuestionQuizRow> findQuizRowsByQuestionIdIn(@Param("questionIds") Collection<UUID> questionIds);
 }
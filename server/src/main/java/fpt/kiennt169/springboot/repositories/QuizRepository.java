@@ -1,5 +1,7 @@
 package fpt.kiennt169.springboot.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,7 +15,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import fpt.kiennt169.springboot.dtos.quizzes.QuizSummaryRow;
 import fpt.kiennt169.springboot.entities.Quiz;
+import fpt.kiennt169.springboot.grading.AnswerKeyRow;
 
 @Repository
 public interface QuizRepository extends JpaRepository<Quiz, UUID>, JpaSpecificationExecutor<Quiz> {
@@ -25,6 +29,19 @@ public interface QuizRepository extends JpaRepository<Quiz, UUID>, JpaSpecificat
     @Query("SELECT q FROM Quiz q LEFT JOIN FETCH q.questions qs LEFT JOIN FETCH qs.answers WHERE q.id = :id")
     Optional<Quiz> findByIdWithQuestionsAndAnswers(@Param("id") UUID id);
     
+    @Query("SELECT q.active FROM Quiz q WHERE q.id = :id")
+    Optional<Boolean> findActiveById(@Param("id") UUID id);
+
+    @Query("SELECT new fpt.kiennt169.springboot.grading.AnswerKeyRow(qs.id, qs.type, qs.score, a.id, a.isCorrect) " +
+           "FROM Quiz q JOIN q.questions qs LEFT JOIN qs.answers a WHERE q.id = :id")
+    List<AnswerKeyRow> findAnswerKeyRows(@Param("id") UUID id);
+    
     @Override
     Page<Quiz> findAll(Specification<Quiz> spec, Pageable pageable);
+
+    @Query("SELECT new fpt.kiennt169.springboot.dtos.quizzes.QuizSummaryRow(" +
+           "q.id, q.title, q.description, q.durationMinutes, q.active, " +
+           "(SELECT COUNT(qs.id) FROM Question qs JOIN qs.quizzes qz WHERE qz.id = q.id)) " +
+           "FROM Quiz q WHERE q.id IN :ids")
+    List<QuizSummaryRow> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
 }
@@ -1,14 +1,13 @@
 package fpt.kiennt169.springboot.repositories;
 
 import fpt.kiennt169.springboot.entities.User;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,9 +20,8 @@ public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificat
     @EntityGraph(attributePaths = {"roles"})
     Optional<User> findByEmail(String email);
 
-    @Override
     @EntityGraph(attributePaths = {"roles"})
-    Page<User> findAll(Specification<User> spec, Pageable pageable);
+    List<User> findByIdIn(Collection<UUID> ids);
 
     boolean existsByEmail(String email);
 }
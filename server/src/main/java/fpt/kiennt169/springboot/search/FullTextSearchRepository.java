@@ -0,0 +1,188 @@
+package fpt.kiennt169.springboot.search;
+
+import fpt.kiennt169.springboot.config.FullTextSearchProperties;
+import fpt.kiennt169.springboot.enums.QuestionTypeEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Relevance-ranked search over questions and quizzes on Postgres.
+ *
+ * A row matches when its {@code search_vector} matches the words of the search text or
+ * its text contains the search text ({@code ILIKE}, served by the trigram index), so
+ * every row the LIKE specifications found is still found. Questions also match on their
+ * answers. Rows are ordered by the requested sort; {@value #RELEVANCE} (always most
+ * relevant first) sorts by full-text rank plus trigram similarity, which is also the
+ * order when nothing else is requested. Only ids are returned; callers load the
+ * entities for the page.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FullTextSearchRepository {
+
+    /** Sort property that orders matches by relevance */
+    public static final String RELEVANCE = "relevance";
+
+    private static final String QUESTION_MATCHES = """
+            WITH query AS (SELECT plainto_tsquery(CAST(:language AS regconfig), :text) AS tsq),
+            matches AS (
+                SELECT q.id FROM questions q, query
+                WHERE q.search_vector @@ query.tsq OR q.content ILIKE :pattern
+                UNION
+                SELECT a.question_id FROM answers a, query
+                WHERE a.is_deleted = false AND (a.search_vector @@ query.tsq OR a.content ILIKE :pattern)
+            )
+            """;
+
+    private static final String QUESTION_FROM = """
+            FROM questions q
+            JOIN matches m ON m.id = q.id
+            CROSS JOIN query
+            WHERE q.is_deleted = false
+            """;
+
+    private static final String QUESTION_RANK = """
+            ts_rank(q.search_vector, query.tsq) + similarity(q.content, :text)
+                + 0.5 * coalesce((SELECT max(ts_rank(a.search_vector, query.tsq)) FROM answers a
+                                  WHERE a.question_id = q.id AND a.is_deleted = false), 0)""";
+
+    private static final String QUIZ_MATCHES = """
+            WITH query AS (SELECT plainto_tsquery(CAST(:language AS regconfig), :text) AS tsq)
+            """;
+
+    private static final String QUIZ_FROM = """
+            FROM quizzes q, query
+            WHERE q.is_deleted = false AND (q.search_vector @@ query.tsq OR q.title ILIKE :pattern)
+            """;
+
+    private static final String QUIZ_RANK = "ts_rank(q.search_vector, query.tsq) + similarity(q.title, :text)";
+
+    private static final Map<String, String> QUESTION_COLUMNS = Map.of(
+            "createdAt", "q.created_at",
+            "updatedAt", "q.updated_at",
+            "content", "q.content",
+            "type", "q.type",
+            "score", "q.score");
+
+    private static final Map<String, String> QUIZ_COLUMNS = Map.of(
+            "createdAt", "q.created_at",
+            "updatedAt", "q.updated_at",
+            "title", "q.title",
+            "durationMinutes", "q.duration_minutes",
+            "active", "q.active");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final FullTextSearchSchema schema;
+    private final FullTextSearchProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Whether a search for this text should use this repository. Terms shorter than a
+     * trigram cannot use the trigram index, so they stay on the LIKE path.
+     */
+    public boolean supports(String text) {
+        return schema.isAvailable() && text != null && text.strip().length() >= properties.getMinTermLength();
+    }
+
+    public Page<UUID> searchQuestionIds(String content, QuestionTypeEnum type, Pageable pageable) {
+        MapSqlParameterSource params = parameters(content, pageable);
+        String from = QUESTION_FROM;
+        if (type != null) {
+            from += " AND q.type = :type";
+            params.addValue("type", type.name());
+        }
+        return search("question", QUESTION_MATCHES + "SELECT q.id " + from, QUESTION_MATCHES + "SELECT count(*) " + from,
+                QUESTION_RANK, QUESTION_COLUMNS, params, pageable);
+    }
+
+    public Page<UUID> searchQuizIds(String title, Boolean active, Pageable pageable) {
+        MapSqlParameterSource params = parameters(title, pageable);
+        String from = QUIZ_FROM;
+        if (active != null) {
+            from += " AND q.active = :active";
+            params.addValue("active", active);
+        }
+        return search("quiz", QUIZ_MATCHES + "SELECT q.id " + from, QUIZ_MATCHES + "SELECT count(*) " + from,
+                QUIZ_RANK, QUIZ_COLUMNS, params, pageable);
+    }
+
+    private Page<UUID> search(String entity, String selectIds, String count, String rank,
+                              Map<String, String> columns, MapSqlParameterSource params, Pageable pageable) {
+        String select = selectIds
+                + " ORDER BY " + orderBy(pageable.getSort(), rank, columns) + "q.id"
+                + " LIMIT :limit OFFSET :offset";
+
+        return timed(entity, () -> {
+            List<UUID> ids = jdbcTemplate.queryForList(select, params, UUID.class);
+            return PageableExecutionUtils.getPage(ids, pageable, () -> {
+                Long total = jdbcTemplate.queryForObject(count, params, Long.class);
+                return total != null ? total : 0L;
+            });
+        });
+    }
+
+    private MapSqlParameterSource parameters(String text, Pageable pageable) {
+        String term = text.strip();
+        return new MapSqlParameterSource()
+                .addValue("language", properties.getLanguage())
+                .addValue("text", term)
+                .addValue("pattern", "%" + escapeLike(term) + "%")
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+    }
+
+    /**
+     * Requested sort, relevance when none of it maps to a column; properties without a
+     * column are ignored
+     */
+    private static String orderBy(Sort sort, String rank, Map<String, String> columns) {
+        StringBuilder orderBy = new StringBuilder();
+        for (Sort.Order order : sort) {
+            if (RELEVANCE.equals(order.getProperty())) {
+                orderBy.append(rank).append(" DESC, ");
+                continue;
+            }
+            String column = columns.get(order.getProperty());
+            if (column != null) {
+                orderBy.append(column).append(order.isAscending() ? " ASC, " : " DESC, ");
+            }
+        }
+        return orderBy.isEmpty() ? rank + " DESC, " : orderBy.toString();
+    }
+
+    /**
+     * The pageable without relevance orders, for searches that cannot rank
+     */
+    public static Pageable withoutRelevance(Pageable pageable) {
+        Sort sort = Sort.by(pageable.getSort().stream()
+                .filter(order -> !RELEVANCE.equals(order.getProperty()))
+                .toList());
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort) : pageable;
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private <T> T timed(String entity, Supplier<T> search) {
+        return Timer.builder("search.full.text")
+                .description("Latency of full-text searches")
+                .tag("entity", entity)
+                .register(meterRegistry)
+                .record(search);
+    }
+}
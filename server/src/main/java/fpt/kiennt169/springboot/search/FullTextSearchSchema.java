@@ -0,0 +1,140 @@
+package fpt.kiennt169.springboot.search;
+
+import fpt.kiennt169.springboot.config.FullTextSearchProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Postgres objects behind {@link FullTextSearchRepository}.
+ *
+ * Hibernate's schema update does not know about extensions, generated columns or GIN
+ * operator classes, so once the application is up this adds {@code pg_trgm}, a stored
+ * {@code search_vector} column on questions, answers and quizzes, and trigram and
+ * full-text GIN indexes on them. Every statement is idempotent and indexes are built
+ * concurrently; an index left invalid by a failed concurrent build is dropped and
+ * rebuilt. With {@code search.full-text.manage-schema=false} the objects are only
+ * checked for, so they can be created by a DBA instead.
+ *
+ * Full-text search stays off, and searches use the LIKE specifications, until the
+ * objects are in place and every index is valid, and for good on any database other than Postgres.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FullTextSearchSchema {
+
+    static final String VECTOR_COLUMN = "search_vector";
+
+    private static final Pattern LANGUAGE = Pattern.compile("[a-z_]+");
+    private static final List<String> TABLES = List.of("questions", "answers", "quizzes");
+    private static final List<String> INDEXES = List.of(
+            "idx_question_content_trgm", "idx_question_search_vector",
+            "idx_answer_content_trgm", "idx_answer_search_vector",
+            "idx_quiz_title_trgm", "idx_quiz_search_vector");
+    private static final String INDEX_IN_SCHEMA = "FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+            + "JOIN pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = current_schema()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FullTextSearchProperties properties;
+
+    private volatile boolean available;
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!properties.isEnabled()) {
+            log.info("Full-text search disabled; searches use LIKE");
+            return;
+        }
+        if (!LANGUAGE.matcher(properties.getLanguage()).matches()) {
+            log.warn("Invalid full-text search language '{}'; searches use LIKE", properties.getLanguage());
+            return;
+        }
+
+        try {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (database == null || !database.toLowerCase(Locale.ROOT).contains("postgres")) {
+                log.info("Full-text search needs PostgreSQL, found {}; searches use LIKE", database);
+                return;
+            }
+
+            if (properties.isManageSchema()) {
+                createSchema(properties.getLanguage());
+            }
+            available = isSchemaPresent();
+            if (available) {
+                log.info("Full-text search enabled (pg_trgm and tsvector, language '{}')", properties.getLanguage());
+            } else {
+                log.warn("Full-text search objects are missing; searches use LIKE");
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to set up full-text search; searches use LIKE: {}", e.getMessage());
+        }
+    }
+
+    private void createSchema(String language) {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+
+        addVectorColumn("questions", "content", language);
+        addVectorColumn("answers", "content", language);
+        addVectorColumn("quizzes", "title", language);
+
+        createIndex("idx_question_content_trgm", "questions", "content gin_trgm_ops");
+        createIndex("idx_question_search_vector", "questions", VECTOR_COLUMN);
+        createIndex("idx_answer_content_trgm", "answers", "content gin_trgm_ops");
+        createIndex("idx_answer_search_vector", "answers", VECTOR_COLUMN);
+        createIndex("idx_quiz_title_trgm", "quizzes", "title gin_trgm_ops");
+        createIndex("idx_quiz_search_vector", "quizzes", VECTOR_COLUMN);
+    }
+
+    /**
+     * The column is generated, so it never goes stale and no entity has to map it. Its
+     * language is fixed when it is added; drop the column to change it.
+     */
+    private void addVectorColumn(String table, String source, String language) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " + VECTOR_COLUMN
+                + " tsvector GENERATED ALWAYS AS (to_tsvector('" + language + "', coalesce(" + source + ", ''))) STORED");
+    }
+
+    private void createIndex(String name, String table, String definition) {
+        // IF NOT EXISTS skips an index a failed concurrent build left invalid
+        Integer invalid = jdbcTemplate.queryForObject(
+                "SELECT count(*) " + INDEX_IN_SCHEMA + " AND c.relname = ? AND NOT i.indisvalid",
+                Integer.class, name);
+        if (invalid != null && invalid > 0) {
+            log.warn("Rebuilding invalid full-text search index {}", name);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name
+                + " ON " + table + " USING gin (" + definition + ")");
+    }
+
+    private boolean isSchemaPresent() {
+        Integer extensions = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_extension WHERE extname = 'pg_trgm'", Integer.class);
+        Integer columns = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.columns WHERE table_schema = current_schema() "
+                        + "AND column_name = ? AND table_name IN ('" + String.join("', '", TABLES) + "')",
+                Integer.class, VECTOR_COLUMN);
+        Integer validIndexes = jdbcTemplate.queryForObject(
+                "SELECT count(*) " + INDEX_IN_SCHEMA + " AND i.indisvalid "
+                        + "AND c.relname IN ('" + String.join("', '", INDEXES) + "')",
+                Integer.class);
+        return extensions != null && extensions > 0 && columns != null && columns == TABLES.size()
+                && validIndexes != null && validIndexes == INDEXES.size();
+    }
+}
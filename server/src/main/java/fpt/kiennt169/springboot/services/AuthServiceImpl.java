@@ -2,23 +2,32 @@ package fpt.kiennt169.springboot.services;
 
 import java.time.Instant;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import fpt.kiennt169.springboot.cache.SearchResultCache;
 import fpt.kiennt169.springboot.dtos.users.AuthResponseDTO;
 import fpt.kiennt169.springboot.dtos.users.LoginRequestDTO;
 import fpt.kiennt169.springboot.dtos.users.RegisterRequestDTO;
+import fpt.kiennt169.springboot.dtos.users.UserAuthSnapshot;
 import fpt.kiennt169.springboot.dtos.users.UserResponseDTO;
 import fpt.kiennt169.springboot.entities.RefreshToken;
+import fpt.kiennt169.springboot.entities.RefreshTokenRotation;
 import fpt.kiennt169.springboot.entities.Role;
 import fpt.kiennt169.springboot.entities.User;
 import fpt.kiennt169.springboot.enums.RoleEnum;
@@ -27,6 +36,8 @@ import fpt.kiennt169.springboot.exceptions.ResourceNotFoundException;
 import fpt.kiennt169.springboot.mappers.UserMapper;
 import fpt.kiennt169.springboot.repositories.RoleRepository;
 import fpt.kiennt169.springboot.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -41,16 +52,27 @@ public class AuthServiceImpl implements AuthService {
     private final AuthenticationManager authenticationManager;
     private final TokenService tokenService;
     private final RefreshTokenService refreshTokenService;
+    private final UserAuthSnapshotService userAuthSnapshotService;
+    private final LoginAttemptService loginAttemptService;
     private final UserMapper userMapper;
+    private final SearchResultCache searchResultCache;
+    private final MeterRegistry meterRegistry;
 
     @Value("${jwt.refresh-expiration:604800000}")
     private long refreshTokenExpiration;
 
+    @Value("${jwt.refresh-reuse-grace:5000}")
+    private long refreshReuseGrace;
+
+    private final Map<String, CompletableFuture<AuthResponseDTO>> refreshesInFlight = new ConcurrentHashMap<>();
+
     @Override
-    @Transactional
     public AuthResponseDTO login(LoginRequestDTO loginRequest) {
         log.debug("Attempting login for user: {}", loginRequest.email());
         
+        // Locked accounts are turned away before any password hashing
+        loginAttemptService.checkAllowed(loginRequest.email());
+        
         try {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -58,31 +80,17 @@ public class AuthServiceImpl implements AuthService {
                             loginRequest.password()
                     )
             );
+            loginAttemptService.recordSuccess(loginRequest.email());
             
-            User user = userRepository.findByEmail(loginRequest.email())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "email", loginRequest.email()));
+            // Loaded by the authentication above; served from the snapshot cache
+            UserAuthSnapshot user = userAuthSnapshotService.getByEmail(loginRequest.email());
 
-            int roleCount = user.getRoles().size(); 
-            log.debug("User has {} roles", roleCount);
-            
-            Set<String> roleNames = user.getRoles().stream()
-                    .map(role -> role.getName().name())
-                    .collect(Collectors.toSet());
+            Set<String> roleNames = user.getRoles();
+            log.debug("User has {} roles", roleNames.size());
             
-            UserResponseDTO userResponseDTO = new UserResponseDTO(
-                    user.getId(),
-                    user.getEmail(),
-                    user.getUsername(),
-                    user.getFirstName(),
-                    user.getLastName(),
-                    user.getFullName(),
-                    user.getDateOfBirth(),
-                    user.getPhoneNumber(),
-                    user.getActive(),
-                    roleNames  
-            );
+            UserResponseDTO userResponseDTO = user.toResponseDTO();
             
-            String token = tokenService.generateToken(user, roleNames);
+            String token = tokenService.generateToken(user.getId(), user.getEmail(), roleNames);
             String refreshTokenString = tokenService.generateRefreshToken();
             
             RefreshToken refreshToken = RefreshToken.builder()
@@ -107,6 +115,7 @@ public class AuthServiceImpl implements AuthService {
 
         } catch (BadCredentialsException e) {
             log.warn("Failed login attempt for user: {}", loginRequest.email());
+            loginAttemptService.recordFailure(loginRequest.email());
             throw new BadCredentialsException("Invalid email or password");
         }
     }
@@ -148,6 +157,7 @@ public class AuthServiceImpl implements AuthService {
         user.setRoles(roles);
         
         User savedUser = userRepository.save(user);
+        searchResultCache.invalidate(UserServiceImpl.SEARCH_ENTITY);
         log.info("User registered successfully: {}", savedUser.getEmail());
         
         Set<String> roleNames = savedUser.getRoles().stream()
@@ -178,8 +188,13 @@ public class AuthServiceImpl implements AuthService {
         );
     }
 
+    /**
+     * Browser tabs sharing a refresh token tend to refresh it at the same moment. Callers
+     * on this node join the rotation already in flight for their token; callers that lose
+     * the race on another node, or arrive just after it, get the same token pair from the
+     * rotation result kept in Redis for {@code jwt.refresh-reuse-grace} milliseconds.
+     */
     @Override
-    @Transactional(readOnly = true)
     public AuthResponseDTO refresh(String refreshTokenString) {
         log.debug("Attempting to refresh token");
         
@@ -187,26 +202,48 @@ public class AuthServiceImpl implements AuthService {
             throw new BadCredentialsException("Refresh token cannot be null or empty");
         }
         
-        RefreshToken refreshToken = refreshTokenService.findByToken(refreshTokenString)
-                .orElseThrow(() -> new BadCredentialsException("Refresh token not found or expired"));
+        CompletableFuture<AuthResponseDTO> rotation = new CompletableFuture<>();
+        CompletableFuture<AuthResponseDTO> inFlight = refreshesInFlight.putIfAbsent(refreshTokenString, rotation);
+        if (inFlight != null) {
+            coalescedRefresh("local");
+            return awaitRefresh(inFlight);
+        }
+        
+        try {
+            AuthResponseDTO response = rotate(refreshTokenString);
+            rotation.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            rotation.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshesInFlight.remove(refreshTokenString, rotation);
+        }
+    }
+
+    private AuthResponseDTO rotate(String refreshTokenString) {
+        Optional<RefreshToken> found = refreshTokenService.findByToken(refreshTokenString);
+        if (found.isEmpty()) {
+            return reuseRotation(refreshTokenString);
+        }
+        RefreshToken refreshToken = found.get();
         
         if (refreshToken.isExpired()) {
-            refreshTokenService.deleteToken(refreshTokenString);
+            refreshTokenService.revokeToken(refreshToken);
             throw new BadCredentialsException("Refresh token has expired");
         }
         
-        User user = userRepository.findByEmail(refreshToken.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", refreshToken.getEmail()));
+        UserAuthSnapshot user = userAuthSnapshotService.getByEmail(refreshToken.getEmail());
+        if (!Boolean.TRUE.equals(user.getActive())) {
+            refreshTokenService.revokeToken(refreshToken);
+            throw new BadCredentialsException("User account is deactivated");
+        }
         
-        Set<String> currentRoles = user.getRoles().stream()
-                .map(role -> role.getName().name())
-                .collect(Collectors.toSet());
+        Set<String> currentRoles = user.getRoles();
         
-        String newAccessToken = tokenService.generateToken(user, currentRoles);
+        String newAccessToken = tokenService.generateToken(user.getId(), user.getEmail(), currentRoles);
         String newRefreshTokenString = tokenService.generateRefreshToken();
         
-        refreshTokenService.deleteToken(refreshTokenString);
-        
         RefreshToken newRefreshToken = RefreshToken.builder()
                 .token(newRefreshTokenString)
                 .userId(user.getId())
@@ -216,37 +253,92 @@ public class AuthServiceImpl implements AuthService {
                 .expiresAt(Instant.now().plusMillis(refreshTokenExpiration))
                 .build();
         
-        refreshTokenService.saveRefreshToken(newRefreshToken, refreshTokenExpiration / 1000);
+        RefreshTokenRotation rotation = RefreshTokenRotation.builder()
+                .accessToken(newAccessToken)
+                .refreshToken(newRefreshToken)
+                .build();
+        
+        if (!refreshTokenService.rotateToken(refreshToken, rotation, refreshTokenExpiration / 1000, refreshReuseGrace)) {
+            return reuseRotation(refreshTokenString);
+        }
         
         log.info("Token refreshed successfully for user: {}", user.getEmail());
         
         return new AuthResponseDTO(
                 newAccessToken,
                 newRefreshTokenString,
-                userMapper.toResponseDTO(user),
+                user.toResponseDTO(),
                 currentRoles
         );
     }
 
+    /**
+     * Token pair issued by a rotation of this token that completed within the grace window
+     */
+    private AuthResponseDTO reuseRotation(String refreshTokenString) {
+        RefreshTokenRotation rotation = refreshTokenService.findRotation(refreshTokenString)
+                .orElseThrow(() -> new BadCredentialsException("Refresh token not found or expired"));
+        RefreshToken refreshToken = rotation.getRefreshToken();
+        
+        coalescedRefresh("grace");
+        log.debug("Reusing recent refresh token rotation for user: {}", refreshToken.getEmail());
+        
+        UserAuthSnapshot user = userAuthSnapshotService.getByEmail(refreshToken.getEmail());
+        if (!Boolean.TRUE.equals(user.getActive())) {
+            refreshTokenService.revokeToken(refreshToken);
+            throw new BadCredentialsException("User account is deactivated");
+        }
+        return new AuthResponseDTO(
+                rotation.getAccessToken(),
+                refreshToken.getToken(),
+                user.toResponseDTO(),
+                refreshToken.getRoles()
+        );
+    }
+
+    private AuthResponseDTO awaitRefresh(CompletableFuture<AuthResponseDTO> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private void coalescedRefresh(String source) {
+        Counter.builder("auth.refresh.coalesced")
+                .description("Token refreshes answered with a rotation made by another request")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+    }
+
     @Override
     @Transactional
     public void logout() {
         log.debug("Attempting logout");
         
-        String email = SecurityContextHolder
+        Authentication authentication = SecurityContextHolder
                 .getContext()
-                .getAuthentication()
-                .getName();
+                .getAuthentication();
+        String email = authentication.getName();
         
         if (email == null || email.equals("anonymousUser")) {
             throw new BadCredentialsException("User not authenticated");
         }
         
         refreshTokenService.findByEmail(email).ifPresent(refreshToken -> {
-            refreshTokenService.deleteToken(refreshToken.getToken());
+            refreshTokenService.revokeToken(refreshToken);
             log.info("Refresh token deleted for user: {}", email);
         });
         
+        // The JWT filter keeps the access token as the credentials
+        if (authentication.getCredentials() instanceof String accessToken) {
+            tokenService.revokeAccessToken(accessToken);
+        }
+        
         log.info("User logged out successfully: {}", email);
     }
 }
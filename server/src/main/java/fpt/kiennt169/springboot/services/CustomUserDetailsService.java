@@ -5,10 +5,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import fpt.kiennt169.springboot.entities.User;
-import fpt.kiennt169.springboot.repositories.UserRepository;
+import fpt.kiennt169.springboot.dtos.users.UserAuthSnapshot;
+import fpt.kiennt169.springboot.exceptions.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -17,10 +16,9 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserAuthSnapshotService userAuthSnapshotService;
 
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.debug("Loading user by username: {}", username);
         
@@ -28,17 +26,19 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("Username cannot be null");
         }
         
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() -> {
-                    log.warn("User not found: {}", username);
-                    return new UsernameNotFoundException("User not found: " + username);
-                });
+        UserAuthSnapshot user;
+        try {
+            user = userAuthSnapshotService.getByEmail(username);
+        } catch (ResourceNotFoundException e) {
+            log.warn("User not found: {}", username);
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
 
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())
-                .password(user.getPassword())
+                .password(user.getPasswordHash())
                 .authorities(user.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority(role.getName().name()))
+                        .map(SimpleGrantedAuthority::new)
                         .toList())
                 .accountExpired(false)
                 .credentialsExpired(false)
@@ -2,9 +2,9 @@ package fpt.kiennt169.springboot.services;
 
 import fpt.kiennt169.springboot.dtos.submissions.ExamResultResponseDTO;
 import fpt.kiennt169.springboot.dtos.submissions.ExamSubmissionRequestDTO;
-import fpt.kiennt169.springboot.entities.*;
-import fpt.kiennt169.springboot.enums.QuestionTypeEnum;
-import fpt.kiennt169.springboot.exceptions.ResourceNotFoundException;
+import fpt.kiennt169.springboot.entities.QuizSubmission;
+import fpt.kiennt169.springboot.grading.GradingKeyCache;
+import fpt.kiennt169.springboot.grading.QuizGradingKey;
 import fpt.kiennt169.springboot.repositories.QuizRepository;
 import fpt.kiennt169.springboot.repositories.QuizSubmissionRepository;
 import fpt.kiennt169.springboot.repositories.UserRepository;
@@ -15,8 +15,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.*;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -26,6 +24,8 @@ public class ExamServiceImpl implements ExamService {
     private final QuizRepository quizRepository;
     private final UserRepository userRepository;
     private final QuizSubmissionRepository quizSubmissionRepository;
+    private final GradingKeyCache gradingKeyCache;
+    private final ExamSessionService examSessionService;
     
     @Value("${exam.pass-percentage}")
     private double passPercentage;
@@ -36,53 +36,21 @@ public class ExamServiceImpl implements ExamService {
         log.info("Processing exam submission for user: {} quiz: {}", 
                 requestDTO.userId(), requestDTO.quizId());
         
-        User user = userRepository.findById(requestDTO.userId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", requestDTO.userId()));
-        
-        Quiz quiz = quizRepository.findByIdWithQuestionsAndAnswers(requestDTO.quizId())
-                .orElseThrow(() -> new ResourceNotFoundException("Quiz", "id", requestDTO.quizId()));
-        
-        if (!Boolean.TRUE.equals(quiz.getActive())) {
-            throw new IllegalStateException("Quiz is not active");
-        }
-        
-        List<Question> quizQuestions = quiz.getQuestions();
-        
-        if (quizQuestions == null || quizQuestions.isEmpty()) {
-            throw new IllegalStateException("Quiz has no questions");
-        }
-        
-        double achievedScore = 0.0;
-        double totalScore = 0.0;
-        
-        Map<UUID, List<UUID>> submittedAnswersMap = requestDTO.answers().stream()
-                .collect(Collectors.toMap(
-                    ExamSubmissionRequestDTO.QuestionAnswerDTO::questionId,
-                    ExamSubmissionRequestDTO.QuestionAnswerDTO::answerIds
-                ));
+        return examSessionService.completeAttempt(requestDTO, () -> grade(requestDTO));
+    }
+
+    private ExamResultResponseDTO grade(ExamSubmissionRequestDTO requestDTO) {
+        QuizGradingKey gradingKey = gradingKeyCache.get(requestDTO.quizId());
+        gradingKey.ensureGradable();
         
-        for (Question question : quizQuestions) {
-            totalScore += question.getScore();
-            
-            List<UUID> submittedAnswerIds = submittedAnswersMap.getOrDefault(question.getId(), Collections.emptyList());
-            
-            List<UUID> correctAnswerIds = question.getAnswers().stream()
-                    .filter(Answer::getIsCorrect)
-                    .map(Answer::getId)
-                    .toList();
-            
-            boolean isCorrect = checkAnswer(question, submittedAnswerIds, correctAnswerIds);
-            
-            if (isCorrect) {
-                achievedScore += question.getScore();
-            }
-        }
+        double achievedScore = gradingKey.score(requestDTO.answers());
+        double totalScore = gradingKey.getTotalScore();
         
-        boolean passed = (achievedScore / totalScore) * 100.0 >= passPercentage;
+        boolean passed = gradingKey.isPassing(achievedScore, passPercentage);
         
         QuizSubmission submission = new QuizSubmission();
-        submission.setUser(user);
-        submission.setQuiz(quiz);
+        submission.setUser(userRepository.getReferenceById(requestDTO.userId()));
+        submission.setQuiz(quizRepository.getReferenceById(requestDTO.quizId()));
         submission.setScore(achievedScore);
         submission.setSubmissionTime(LocalDateTime.now());
         submission = quizSubmissionRepository.save(submission);
@@ -91,22 +59,9 @@ public class ExamServiceImpl implements ExamService {
         
         return new ExamResultResponseDTO(
             submission.getId(),
-            quizQuestions.size(),
+            gradingKey.getQuestionCount(),
             achievedScore,
             passed
         );
     }
-    
-    private boolean checkAnswer(Question question, List<UUID> submittedAnswerIds, List<UUID> correctAnswerIds) {
-        if (question.getType() == QuestionTypeEnum.SINGLE_CHOICE) {
-            // Single choice
-            return submittedAnswerIds.size() == 1 && 
-                   correctAnswerIds.contains(submittedAnswerIds.get(0));
-        } else {
-            // Multiple choice
-            Set<UUID> submittedSet = new HashSet<>(submittedAnswerIds);
-            Set<UUID> correctSet = new HashSet<>(correctAnswerIds);
-            return submittedSet.equals(correctSet);
-        }
-    }
 }
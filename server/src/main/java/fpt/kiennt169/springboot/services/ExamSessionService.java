@@ -0,0 +1,45 @@
+package fpt.kiennt169.springboot.services;
+
+import fpt.kiennt169.springboot.dtos.submissions.ExamSessionResponseDTO;
+import fpt.kiennt169.springboot.dtos.submissions.ExamSubmissionRequestDTO;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Service interface for timed exam attempts
+ * 
+ * Provides business logic for:
+ * - Starting an attempt with a server-side deadline
+ * - Serving the shared exam paper
+ * - Validating and closing an attempt on submission
+ * 
+ * @author kiennt169
+ * @version 1.0
+ */
+public interface ExamSessionService {
+    
+    /**
+     * Start an exam attempt for a user, or return the user's open attempt on the quiz
+     * with its original deadline
+     * 
+     * @param quizId the quiz ID
+     * @param email email of the authenticated user taking the exam
+     * @return attempt ID, deadline and exam paper
+     */
+    ExamSessionResponseDTO startExam(UUID quizId, String email);
+    
+    /**
+     * Validate a submission against its attempt, close the attempt and run the submission.
+     * An attempt can be completed only once; if the submission fails, or the surrounding
+     * transaction rolls back, the attempt is reopened so it can be submitted again.
+     * 
+     * @param requestDTO the exam submission
+     * @param submission grades or enqueues the submission once the attempt is closed
+     * @return the submission's result
+     * @throws fpt.kiennt169.springboot.exceptions.InvalidExamAttemptException if the attempt is unknown,
+     *         already submitted or belongs to another user or quiz
+     * @throws fpt.kiennt169.springboot.exceptions.ExamTimeExpiredException if the deadline has passed
+     */
+    <T> T completeAttempt(ExamSubmissionRequestDTO requestDTO, Supplier<T> submission);
+}
@@ -0,0 +1,144 @@
+package fpt.kiennt169.springboot.services;
+
+import fpt.kiennt169.springboot.dtos.quizzes.ExamPaperResponseDTO;
+import fpt.kiennt169.springboot.dtos.submissions.ExamSessionResponseDTO;
+import fpt.kiennt169.springboot.dtos.submissions.ExamSubmissionRequestDTO;
+import fpt.kiennt169.springboot.exceptions.ExamTimeExpiredException;
+import fpt.kiennt169.springboot.exceptions.InvalidExamAttemptException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Attempts live in Redis as one string per user and quiz
+ * ({@code attemptId:startedAtMillis:deadlineMillis}) that expires shortly after the
+ * deadline. Starting again while an attempt is open returns that attempt, so the timer
+ * cannot be reset; validating a submission is a GET plus a GETDEL and never touches the
+ * database. The key is put back if the submission fails after that, so the attempt can
+ * be resubmitted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExamSessionServiceImpl implements ExamSessionService {
+
+    private static final String ATTEMPT_KEY_PREFIX = "exam:attempt:";
+    private static final String SEPARATOR = ":";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final QuizService quizService;
+    private final UserAuthSnapshotService userAuthSnapshotService;
+
+    @Value("${exam.session.grace-period:30s}")
+    private Duration gracePeriod;
+
+    @Override
+    public ExamSessionResponseDTO startExam(UUID quizId, String email) {
+        ExamPaperResponseDTO paper = quizService.getExamPaper(quizId);
+        UUID userId = userAuthSnapshotService.getByEmail(email).getId();
+        String key = attemptKey(userId, quizId);
+
+        UUID attemptId = UUID.randomUUID();
+        Instant startedAt = Instant.now();
+        Duration duration = Duration.ofMinutes(paper.getDurationMinutes());
+        Instant deadline = startedAt.plus(duration);
+
+        String value = String.join(SEPARATOR,
+                attemptId.toString(),
+                Long.toString(startedAt.toEpochMilli()),
+                Long.toString(deadline.toEpochMilli()));
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, value, duration.plus(gracePeriod)))) {
+            String open = stringRedisTemplate.opsForValue().get(key);
+            if (open != null) {
+                String[] parts = open.split(SEPARATOR);
+                log.info("Exam attempt {} resumed by user: {} for quiz: {}", parts[0], userId, quizId);
+                return new ExamSessionResponseDTO(UUID.fromString(parts[0]),
+                        toLocalDateTime(Instant.ofEpochMilli(Long.parseLong(parts[1]))),
+                        toLocalDateTime(Instant.ofEpochMilli(Long.parseLong(parts[2]))),
+                        paper);
+            }
+            // The open attempt just ended; this start opens the next one.
+            stringRedisTemplate.opsForValue().set(key, value, duration.plus(gracePeriod));
+        }
+
+        log.info("Exam attempt {} started by user: {} for quiz: {}", attemptId, userId, quizId);
+        return new ExamSessionResponseDTO(attemptId, toLocalDateTime(startedAt), toLocalDateTime(deadline), paper);
+    }
+
+    @Override
+    public <T> T completeAttempt(ExamSubmissionRequestDTO requestDTO, Supplier<T> submission) {
+        UUID attemptId = requestDTO.attemptId();
+        String key = attemptKey(requestDTO.userId(), requestDTO.quizId());
+
+        String value = stringRedisTemplate.opsForValue().get(key);
+        if (value == null) {
+            throw new InvalidExamAttemptException(attemptId);
+        }
+
+        String[] parts = value.split(SEPARATOR);
+        if (!parts[0].equals(attemptId.toString())) {
+            throw new InvalidExamAttemptException(attemptId);
+        }
+
+        long expiresAt = Long.parseLong(parts[2]) + gracePeriod.toMillis();
+        if (System.currentTimeMillis() > expiresAt) {
+            stringRedisTemplate.delete(key);
+            throw new ExamTimeExpiredException(attemptId);
+        }
+
+        // Only the request that actually removes this attempt owns it.
+        String claimed = stringRedisTemplate.opsForValue().getAndDelete(key);
+        if (!value.equals(claimed)) {
+            if (claimed != null) {
+                reopenAttempt(key, claimed, Long.parseLong(claimed.split(SEPARATOR)[2]) + gracePeriod.toMillis());
+            }
+            throw new InvalidExamAttemptException(attemptId);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reopenAttempt(key, value, expiresAt);
+                    }
+                }
+            });
+            return submission.get();
+        }
+
+        try {
+            return submission.get();
+        } catch (RuntimeException e) {
+            reopenAttempt(key, value, expiresAt);
+            throw e;
+        }
+    }
+
+    private void reopenAttempt(String key, String value, long expiresAt) {
+        long remaining = expiresAt - System.currentTimeMillis();
+        if (remaining > 0) {
+            stringRedisTemplate.opsForValue().setIfAbsent(key, value, Duration.ofMillis(remaining));
+            log.info("Exam attempt {} reopened", value.substring(0, value.indexOf(SEPARATOR)));
+        }
+    }
+
+    private String attemptKey(UUID userId, UUID quizId) {
+        return ATTEMPT_KEY_PREFIX + userId + SEPARATOR + quizId;
+    }
+
+    private LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
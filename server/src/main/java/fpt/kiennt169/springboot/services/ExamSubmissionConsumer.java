@@ -0,0 +1,348 @@
+package fpt.kiennt169.springboot.services;
+
+import fpt.kiennt169.springboot.config.ExamQueueProperties;
+import fpt.kiennt169.springboot.dtos.submissions.ExamResultResponseDTO;
+import fpt.kiennt169.springboot.dtos.submissions.ExamSubmissionRequestDTO;
+import fpt.kiennt169.springboot.dtos.submissions.SubmissionStatusResponseDTO;
+import fpt.kiennt169.springboot.grading.GradingKeyCache;
+import fpt.kiennt169.springboot.grading.QuizGradingKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background graders for the asynchronous submission stream.
+ *
+ * Each consumer thread reads batches from the consumer group, grades them against the
+ * cached {@link QuizGradingKey}s and inserts the resulting rows with one JDBC batch.
+ * Entries are acknowledged only after the insert commits; entries left pending by a
+ * crashed node are claimed back once they have been idle for {@code exam.async.claim-idle}.
+ * Rows are keyed by the ticket, and tickets that already have a row are skipped, so a
+ * redelivered entry never produces a second row. If two consumers race on the same
+ * ticket, the primary key rejects the second batch and its entries are retried.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "exam.async.enabled", havingValue = "true")
+public class ExamSubmissionConsumer {
+
+    private static final String INSERT_SUBMISSION_SQL = """
+            INSERT INTO quiz_submissions (id, score, submission_time, user_id, quiz_id, created_at, updated_at, is_deleted)
+            VALUES (:id, :score, :submissionTime, :userId, :quizId, :createdAt, :createdAt, false)
+            """;
+
+    private static final String EXISTING_SUBMISSIONS_SQL =
+            "SELECT id FROM quiz_submissions WHERE id IN (:ids)";
+
+    private static final String EXISTING_USERS_SQL =
+            "SELECT id FROM users WHERE id IN (:ids) AND is_deleted = false";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GradingKeyCache gradingKeyCache;
+    private final ExamSubmissionQueueService queueService;
+    private final ExamQueueProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${exam.pass-percentage}")
+    private double passPercentage;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile boolean running;
+    private ExecutorService workers;
+    private ScheduledExecutorService reclaimer;
+
+    private record GradedSubmission(UUID ticket, ExamSubmissionRequestDTO request,
+                                    LocalDateTime submittedAt, ExamResultResponseDTO result) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        createGroupIfMissing();
+        running = true;
+
+        workers = Executors.newFixedThreadPool(properties.getConsumers(),
+                Thread.ofPlatform().name("exam-grader-", 0).factory());
+        for (int i = 0; i < properties.getConsumers(); i++) {
+            Consumer consumer = Consumer.from(properties.getConsumerGroup(), nodeId + "-" + i);
+            workers.submit(() -> consume(consumer));
+        }
+
+        long claimIdleMs = properties.getClaimIdle().toMillis();
+        reclaimer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("exam-grader-reclaim").daemon().factory());
+        reclaimer.scheduleWithFixedDelay(this::reclaimStalled, claimIdleMs, claimIdleMs / 2, TimeUnit.MILLISECONDS);
+
+        log.info("Started {} exam submission consumers on stream {} (node {})",
+                properties.getConsumers(), properties.getStreamKey(), nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (reclaimer != null) {
+            reclaimer.shutdownNow();
+        }
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(properties.getPollTimeout().toMillis() + 1000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void consume(Consumer consumer) {
+        StreamReadOptions readOptions = StreamReadOptions.empty()
+                .count(properties.getBatchSize())
+                .block(properties.getPollTimeout());
+        StreamOffset<String> offset = StreamOffset.create(properties.getStreamKey(), ReadOffset.lastConsumed());
+
+        while (running) {
+            try {
+                // read() only takes the offset as generic varargs, which is unchecked even for a single typed offset
+                @SuppressWarnings("unchecked")
+                List<MapRecord<String, Object, Object>> records = streamOps().read(consumer, readOptions, offset);
+                if (records != null && !records.isEmpty()) {
+                    process(records);
+                }
+            } catch (Exception e) {
+                if (running) {
+                    log.warn("Submission consumer {} failed: {}", consumer.getName(), e.getMessage());
+                    sleepQuietly(properties.getPollTimeout().toMillis());
+                }
+            }
+        }
+    }
+
+    private void reclaimStalled() {
+        try {
+            PendingMessages pending = streamOps().pending(properties.getStreamKey(), properties.getConsumerGroup(),
+                    Range.unbounded(), properties.getBatchSize(), properties.getClaimIdle());
+            if (pending == null || pending.isEmpty()) {
+                return;
+            }
+
+            List<RecordId> retry = new ArrayList<>();
+            List<RecordId> poisoned = new ArrayList<>();
+            for (PendingMessage message : pending) {
+                if (message.getTotalDeliveryCount() >= properties.getMaxDeliveries()) {
+                    poisoned.add(message.getId());
+                } else {
+                    retry.add(message.getId());
+                }
+            }
+
+            if (!poisoned.isEmpty()) {
+                discard(poisoned);
+            }
+            if (!retry.isEmpty()) {
+                List<MapRecord<String, Object, Object>> claimed = streamOps().claim(properties.getStreamKey(),
+                        properties.getConsumerGroup(), nodeId + "-reclaim", properties.getClaimIdle(),
+                        retry.toArray(RecordId[]::new));
+                if (claimed != null && !claimed.isEmpty()) {
+                    log.info("Reprocessing {} stalled exam submissions", claimed.size());
+                    process(claimed);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to reclaim stalled exam submissions: {}", e.getMessage());
+        }
+    }
+
+    private void process(List<MapRecord<String, Object, Object>> records) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<RecordId> ids = new ArrayList<>(records.size());
+        List<GradedSubmission> graded = new ArrayList<>(records.size());
+        List<SubmissionStatusResponseDTO> failed = new ArrayList<>();
+
+        for (MapRecord<String, Object, Object> record : records) {
+            ids.add(record.getId());
+            UUID ticket = null;
+            try {
+                ticket = UUID.fromString((String) record.getValue().get(ExamSubmissionQueueServiceImpl.FIELD_TICKET));
+                ExamSubmissionRequestDTO request = objectMapper.readValue(
+                        (String) record.getValue().get(ExamSubmissionQueueServiceImpl.FIELD_PAYLOAD),
+                        ExamSubmissionRequestDTO.class);
+                graded.add(grade(ticket, request, record.getId()));
+            } catch (Exception e) {
+                log.warn("Rejected queued submission {}: {}", record.getId(), e.getMessage());
+                if (ticket != null) {
+                    failed.add(SubmissionStatusResponseDTO.failed(ticket, e.getMessage()));
+                }
+            }
+        }
+
+        Set<UUID> existingUsers = findExistingUsers(graded);
+        List<GradedSubmission> accepted = new ArrayList<>(graded.size());
+        for (GradedSubmission submission : graded) {
+            if (existingUsers.contains(submission.request().userId())) {
+                accepted.add(submission);
+            } else {
+                failed.add(SubmissionStatusResponseDTO.failed(submission.ticket(),
+                        "User not found with id: " + submission.request().userId()));
+            }
+        }
+
+        insert(accepted);
+
+        accepted.forEach(submission ->
+                queueService.saveStatus(SubmissionStatusResponseDTO.completed(submission.ticket(), submission.result())));
+        failed.forEach(queueService::saveStatus);
+
+        acknowledge(ids);
+
+        counter("completed").increment(accepted.size());
+        counter("failed").increment(failed.size());
+        sample.stop(meterRegistry.timer("exam.submission.queue.batch"));
+    }
+
+    private GradedSubmission grade(UUID ticket, ExamSubmissionRequestDTO request, RecordId recordId) {
+        QuizGradingKey gradingKey = gradingKeyCache.get(request.quizId());
+        gradingKey.ensureGradable();
+
+        double achievedScore = gradingKey.score(request.answers());
+        boolean passed = gradingKey.isPassing(achievedScore, passPercentage);
+        LocalDateTime submittedAt = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(recordId.getTimestamp()), ZoneId.systemDefault());
+
+        return new GradedSubmission(ticket, request, submittedAt,
+                new ExamResultResponseDTO(ticket, gradingKey.getQuestionCount(), achievedScore, passed));
+    }
+
+    private Set<UUID> findExistingUsers(List<GradedSubmission> graded) {
+        if (graded.isEmpty()) {
+            return Set.of();
+        }
+        Set<UUID> userIds = new HashSet<>();
+        graded.forEach(submission -> userIds.add(submission.request().userId()));
+        return new HashSet<>(jdbcTemplate.queryForList(EXISTING_USERS_SQL,
+                new MapSqlParameterSource("ids", userIds), UUID.class));
+    }
+
+    /** Redelivered entries whose row was committed before the acknowledgement was lost */
+    private Set<UUID> findExistingSubmissions(List<GradedSubmission> accepted) {
+        Set<UUID> tickets = new HashSet<>();
+        accepted.forEach(submission -> tickets.add(submission.ticket()));
+        return new HashSet<>(jdbcTemplate.queryForList(EXISTING_SUBMISSIONS_SQL,
+                new MapSqlParameterSource("ids", tickets), UUID.class));
+    }
+
+    private void insert(List<GradedSubmission> accepted) {
+        if (accepted.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<UUID> stored = findExistingSubmissions(accepted);
+                MapSqlParameterSource[] batch = accepted.stream()
+                        .filter(submission -> !stored.contains(submission.ticket()))
+                        .map(submission -> new MapSqlParameterSource()
+                                .addValue("id", submission.ticket())
+                                .addValue("score", submission.result().score())
+                                .addValue("submissionTime", Timestamp.valueOf(submission.submittedAt()))
+                                .addValue("userId", submission.request().userId())
+                                .addValue("quizId", submission.request().quizId())
+                                .addValue("createdAt", now))
+                        .toArray(MapSqlParameterSource[]::new);
+                if (batch.length > 0) {
+                    jdbcTemplate.batchUpdate(INSERT_SUBMISSION_SQL, batch);
+                }
+            });
+        } catch (DataAccessException e) {
+            // Leave the entries pending; the reclaimer retries them after claim-idle.
+            throw new IllegalStateException("Failed to store submission batch", e);
+        }
+    }
+
+    private void discard(List<RecordId> ids) {
+        for (RecordId id : ids) {
+            List<MapRecord<String, Object, Object>> records = streamOps().range(properties.getStreamKey(),
+                    Range.closed(id.getValue(), id.getValue()));
+            if (records != null && !records.isEmpty()) {
+                Object ticket = records.get(0).getValue().get(ExamSubmissionQueueServiceImpl.FIELD_TICKET);
+                queueService.saveStatus(SubmissionStatusResponseDTO.failed(UUID.fromString((String) ticket),
+                        "Submission could not be processed"));
+            }
+        }
+        log.error("Discarding {} exam submissions after {} delivery attempts", ids.size(), properties.getMaxDeliveries());
+        acknowledge(ids);
+        counter("failed").increment(ids.size());
+    }
+
+    private void acknowledge(List<RecordId> ids) {
+        RecordId[] recordIds = ids.toArray(RecordId[]::new);
+        streamOps().acknowledge(properties.getStreamKey(), properties.getConsumerGroup(), recordIds);
+        streamOps().delete(properties.getStreamKey(), recordIds);
+    }
+
+    private void createGroupIfMissing() {
+        try {
+            streamOps().createGroup(properties.getStreamKey(), ReadOffset.from("0"), properties.getConsumerGroup());
+        } catch (RedisSystemException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    private StreamOperations<String, Object, Object> streamOps() {
+        return stringRedisTemplate.opsForStream();
+    }
+
+    private Counter counter(String outcome) {
+        return meterRegistry.counter("exam.submission.queue.processed", "outcome", outcome);
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
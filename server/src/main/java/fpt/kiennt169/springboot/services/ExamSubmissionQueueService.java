@@ -0,0 +1,43 @@
+package fpt.kiennt169.springboot.services;
+
+import fpt.kiennt169.springboot.dtos.submissions.ExamSubmissionRequestDTO;
+import fpt.kiennt169.springboot.dtos.submissions.SubmissionStatusResponseDTO;
+
+import java.util.UUID;
+
+/**
+ * Service interface for asynchronous exam submission
+ * 
+ * Provides business logic for:
+ * - Queueing exam submissions on a Redis Stream for background grading
+ * - Rejecting submissions when the queue backlog is too large
+ * - Looking up the processing status and result of a queued submission
+ * 
+ * @author kiennt169
+ * @version 1.0
+ */
+public interface ExamSubmissionQueueService {
+
+    /**
+     * Validate and enqueue an exam submission
+     * 
+     * @param requestDTO the exam submission with quiz ID, user ID and answers
+     * @return the PENDING status carrying the submission ticket
+     */
+    SubmissionStatusResponseDTO enqueue(ExamSubmissionRequestDTO requestDTO);
+
+    /**
+     * Get the processing status of a queued submission
+     * 
+     * @param ticket the submission ticket returned by {@link #enqueue}
+     * @return the current status, with the result once grading is complete
+     */
+    SubmissionStatusResponseDTO getStatus(UUID ticket);
+
+    /**
+     * Record the final status of a submission so pollers can pick it up
+     * 
+     * @param status the COMPLETED or FAILED status
+     */
+    void saveStatus(SubmissionStatusResponseDTO status);
+}
@@ -0,0 +1,146 @@
+package fpt.kiennt169.springboot.services;
+
+import fpt.kiennt169.springboot.config.ExamQueueProperties;
+import fpt.kiennt169.springboot.dtos.submissions.ExamSubmissionRequestDTO;
+import fpt.kiennt169.springboot.dtos.submissions.SubmissionStatusResponseDTO;
+import fpt.kiennt169.springboot.exceptions.ResourceNotFoundException;
+import fpt.kiennt169.springboot.exceptions.SubmissionQueueFullException;
+import fpt.kiennt169.springboot.grading.GradingKeyCache;
+import fpt.kiennt169.springboot.util.UuidV7Util;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "exam.async.enabled", havingValue = "true")
+public class ExamSubmissionQueueServiceImpl implements ExamSubmissionQueueService {
+
+    static final String FIELD_TICKET = "ticket";
+    static final String FIELD_PAYLOAD = "payload";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final GradingKeyCache gradingKeyCache;
+    private final ExamSessionService examSessionService;
+    private final ExamQueueProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("exam-queue-sampler").daemon().factory());
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("exam.submission.queue.backlog", backlog, AtomicLong::get)
+                .description("Entries in the submission stream that are not yet acknowledged")
+                .register(meterRegistry);
+        TimeGauge.builder("exam.submission.queue.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest submission still waiting in the stream")
+                .register(meterRegistry);
+        sampler.scheduleWithFixedDelay(this::sampleQueue, 0, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sampler.shutdownNow();
+    }
+
+    @Override
+    public SubmissionStatusResponseDTO enqueue(ExamSubmissionRequestDTO requestDTO) {
+        long currentBacklog = backlog.get();
+        if (currentBacklog >= properties.getMaxBacklog()) {
+            log.warn("Rejecting submission for quiz {} - queue backlog {}", requestDTO.quizId(), currentBacklog);
+            throw new SubmissionQueueFullException(currentBacklog);
+        }
+
+        gradingKeyCache.get(requestDTO.quizId()).ensureGradable();
+        return examSessionService.completeAttempt(requestDTO, () -> publish(requestDTO));
+    }
+
+    private SubmissionStatusResponseDTO publish(ExamSubmissionRequestDTO requestDTO) {
+        // The ticket becomes the submission id; time-ordered like the ids Hibernate generates
+        UUID ticket = UuidV7Util.generate();
+        SubmissionStatusResponseDTO pending = SubmissionStatusResponseDTO.pending(ticket);
+        writeStatus(pending);
+
+        MapRecord<String, String, String> record = StreamRecords.newRecord()
+                .in(properties.getStreamKey())
+                .ofMap(Map.of(
+                        FIELD_TICKET, ticket.toString(),
+                        FIELD_PAYLOAD, toJson(requestDTO)));
+        stringRedisTemplate.opsForStream().add(record);
+        backlog.incrementAndGet();
+
+        log.info("Queued exam submission {} for user: {} quiz: {}", ticket, requestDTO.userId(), requestDTO.quizId());
+        return pending;
+    }
+
+    @Override
+    public SubmissionStatusResponseDTO getStatus(UUID ticket) {
+        String json = stringRedisTemplate.opsForValue().get(properties.resultKey(ticket));
+        if (json == null) {
+            throw new ResourceNotFoundException("Submission", "ticket", ticket);
+        }
+        try {
+            return objectMapper.readValue(json, SubmissionStatusResponseDTO.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Corrupted submission status for ticket " + ticket, e);
+        }
+    }
+
+    @Override
+    public void saveStatus(SubmissionStatusResponseDTO status) {
+        writeStatus(status);
+    }
+
+    private void writeStatus(SubmissionStatusResponseDTO status) {
+        stringRedisTemplate.opsForValue().set(
+                properties.resultKey(status.ticket()), toJson(status), properties.getResultTtl());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize submission", e);
+        }
+    }
+
+    private void sampleQueue() {
+        try {
+            Long size = stringRedisTemplate.opsForStream().size(properties.getStreamKey());
+            backlog.set(size != null ? size : 0);
+
+            List<MapRecord<String, Object, Object>> oldest = stringRedisTemplate.opsForStream()
+                    .range(properties.getStreamKey(), Range.unbounded(), Limit.limit().count(1));
+            lagMillis.set(oldest == null || oldest.isEmpty()
+                    ? 0
+                    : Math.max(0, System.currentTimeMillis() - oldest.get(0).getId().getTimestamp()));
+        } catch (Exception e) {
+            log.debug("Failed to sample submission queue: {}", e.getMessage());
+        }
+    }
+}
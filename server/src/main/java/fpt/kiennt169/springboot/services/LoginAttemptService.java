@@ -0,0 +1,36 @@
+package fpt.kiennt169.springboot.services;
+
+/**
+ * Service interface for per-account failed-login throttling
+ * 
+ * Failures are counted per email in Redis. Past a threshold the account is locked for
+ * a window that doubles with every further failure, and locked attempts are rejected
+ * before any password hashing.
+ * 
+ * @author kiennt169
+ * @version 1.0
+ */
+public interface LoginAttemptService {
+
+    /**
+     * Reject the attempt if the account is currently locked
+     * 
+     * @param email the email being logged in to
+     * @throws fpt.kiennt169.springboot.exceptions.LoginLockedException if the account is locked
+     */
+    void checkAllowed(String email);
+
+    /**
+     * Count a failed attempt, locking the account once the threshold is reached
+     * 
+     * @param email the email being logged in to
+     */
+    void recordFailure(String email);
+
+    /**
+     * Clear the failure count and any lock after a successful login
+     * 
+     * @param email the email that logged in
+     */
+    void recordSuccess(String email);
+}
@@ -0,0 +1,116 @@
+package fpt.kiennt169.springboot.services;
+
+import fpt.kiennt169.springboot.config.LoginThrottleProperties;
+import fpt.kiennt169.springboot.exceptions.LoginLockedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Redis-backed login throttle. A lock is a single key holding its expiry time, so a
+ * rejected attempt costs one GET; failures are counted and locks set by one script.
+ * Redis errors never block a login.
+ */
+@Slf4j
+@Service
+public class LoginAttemptServiceImpl implements LoginAttemptService {
+
+    private static final String FAILURES_PREFIX = "login:failures:";
+    private static final String LOCK_PREFIX = "login:lock:";
+
+    private static final RedisScript<Long> FAILURE_SCRIPT =
+        RedisScript.of(new ClassPathResource("redis/login-failure.lua"), Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final LoginThrottleProperties properties;
+    private final Counter rejected;
+    private final Counter lockouts;
+
+    public LoginAttemptServiceImpl(StringRedisTemplate stringRedisTemplate, LoginThrottleProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        this.rejected = Counter.builder("auth.login.throttle")
+                .description("Login attempts rejected or accounts locked by the failed-login throttle")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        this.lockouts = Counter.builder("auth.login.throttle")
+                .description("Login attempts rejected or accounts locked by the failed-login throttle")
+                .tag("result", "locked")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void checkAllowed(String email) {
+        if (!properties.isEnabled() || email == null) {
+            return;
+        }
+
+        String lockedUntil;
+        try {
+            lockedUntil = stringRedisTemplate.opsForValue().get(LOCK_PREFIX + normalize(email));
+        } catch (Exception e) {
+            log.warn("Failed to check login lock for {}: {}", email, e.getMessage());
+            return;
+        }
+        if (lockedUntil == null) {
+            return;
+        }
+
+        long remainingMillis = Long.parseLong(lockedUntil) - System.currentTimeMillis();
+        if (remainingMillis > 0) {
+            rejected.increment();
+            throw new LoginLockedException(Math.max(1, (remainingMillis + 999) / 1000));
+        }
+    }
+
+    @Override
+    public void recordFailure(String email) {
+        if (!properties.isEnabled() || email == null) {
+            return;
+        }
+
+        String key = normalize(email);
+        try {
+            Long lockoutMillis = stringRedisTemplate.execute(FAILURE_SCRIPT,
+                    List.of(FAILURES_PREFIX + key, LOCK_PREFIX + key),
+                    String.valueOf(properties.getMaxFailures()),
+                    String.valueOf(properties.getBaseLockout().toMillis()),
+                    String.valueOf(properties.getMaxLockout().toMillis()),
+                    String.valueOf(properties.getFailureWindow().toMillis()),
+                    String.valueOf(System.currentTimeMillis()));
+
+            if (lockoutMillis != null && lockoutMillis > 0) {
+                lockouts.increment();
+                log.warn("Login locked for {} for {} ms after repeated failures", email, lockoutMillis);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to record login failure for {}: {}", email, e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordSuccess(String email) {
+        if (!properties.isEnabled() || email == null) {
+            return;
+        }
+
+        String key = normalize(email);
+        try {
+            stringRedisTemplate.delete(List.of(FAILURES_PREFIX + key, LOCK_PREFIX + key));
+        } catch (Exception e) {
+            log.warn("Failed to reset login failures for {}: {}", email, e.getMessage());
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
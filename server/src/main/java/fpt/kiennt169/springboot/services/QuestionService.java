@@ -3,7 +3,9 @@ package fpt.kiennt169.springboot.services;
 import java.util.UUID;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
 import fpt.kiennt169.springboot.dtos.questions.QuestionRequestDTO;
 import fpt.kiennt169.springboot.dtos.questions.QuestionResponseDTO;
@@ -49,6 +51,19 @@ public interface QuestionService {
      */
     PageResponseDTO<QuestionResponseDTO> searchWithPaging(String content, QuestionTypeEnum type, Pageable pageable);
     
+    /**
+     * Scroll questions with keyset pagination
+     * No count query is run and deep slices cost the same as the first
+     * 
+     * @param content the content to search (optional, case-insensitive)
+     * @param type filter by question type (optional)
+     * @param cursor the cursor returned with the previous slice (null for the first slice)
+     * @param size number of items per slice
+     * @param sort sort order over whitelisted keys
+     * @return slice of questions with the cursor to the next slice
+     */
+    CursorPageResponseDTO<QuestionResponseDTO> scroll(String content, QuestionTypeEnum type, String cursor, int size, Sort sort);
+    
     /**
      * Get a question by ID
      * 
@@ -1,29 +1,45 @@
 package fpt.kiennt169.springboot.services;
 
+import fpt.kiennt169.springboot.cache.CacheDependencyTracker;
+import fpt.kiennt169.springboot.cache.SearchResultCache;
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
 import fpt.kiennt169.springboot.dtos.answers.AnswerRequestDTO;
+import fpt.kiennt169.springboot.dtos.questions.QuestionQuizRow;
 import fpt.kiennt169.springboot.dtos.questions.QuestionRequestDTO;
 import fpt.kiennt169.springboot.dtos.questions.QuestionResponseDTO;
 import fpt.kiennt169.springboot.entities.Answer;
 import fpt.kiennt169.springboot.entities.Question;
+import fpt.kiennt169.springboot.enums.QuestionTypeEnum;
 import fpt.kiennt169.springboot.exceptions.ResourceNotFoundException;
+import fpt.kiennt169.springboot.grading.GradingKeyCache;
 import fpt.kiennt169.springboot.mappers.AnswerMapper;
 import fpt.kiennt169.springboot.mappers.QuestionMapper;
+import fpt.kiennt169.springboot.pagination.KeysetPager;
+import fpt.kiennt169.springboot.pagination.TwoPhasePager;
 import fpt.kiennt169.springboot.repositories.AnswerRepository;
 import fpt.kiennt169.springboot.repositories.QuestionRepository;
+import fpt.kiennt169.springboot.search.FullTextSearchRepository;
 import fpt.kiennt169.springboot.specifications.QuestionSpecification;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,11 +47,23 @@ import java.util.UUID;
 public class QuestionServiceImpl implements QuestionService {
     
     private static final String ENTITY_NAME = "Question";
+    static final String SEARCH_ENTITY = "question";
     
+    private static final Map<String, Class<?>> SCROLL_KEYS = Map.of(
+            "createdAt", LocalDateTime.class,
+            "score", Integer.class,
+            "type", QuestionTypeEnum.class);
+
     private final QuestionRepository questionRepository;
     private final AnswerRepository answerRepository;
     private final QuestionMapper questionMapper;
     private final AnswerMapper answerMapper;
+    private final GradingKeyCache gradingKeyCache;
+    private final CacheDependencyTracker cacheDependencyTracker;
+    private final SearchResultCache searchResultCache;
+    private final FullTextSearchRepository fullTextSearch;
+    private final KeysetPager keysetPager;
+    private final TwoPhasePager twoPhasePager;
 
     @Override
     @Transactional
@@ -53,6 +81,7 @@ public class QuestionServiceImpl implements QuestionService {
         }
 
         Question savedQuestion = questionRepository.save(question);
+        searchResultCache.invalidate(SEARCH_ENTITY);
 
         return questionMapper.toResponseDTO(savedQuestion);
     }
@@ -60,24 +89,41 @@ public class QuestionServiceImpl implements QuestionService {
     @Override
     @Transactional(readOnly = true)
     public PageResponseDTO<QuestionResponseDTO> getWithPaging(Pageable pageable) {
-        Page<Question> questionPage = questionRepository.findAll(pageable);
-        
-        Page<QuestionResponseDTO> responsePage = questionPage.map(questionMapper::toResponseDTO);
+        Page<Question> questionPage = twoPhasePager.page(Question.class, null, pageable,
+                questionRepository::findByIdIn, Question::getId);
         
-        return PageResponseDTO.from(responsePage);
+        return PageResponseDTO.from(toResponsePage(questionPage));
     }
     
     @Override
     @Transactional(readOnly = true)
     public PageResponseDTO<QuestionResponseDTO> searchWithPaging(String content, fpt.kiennt169.springboot.enums.QuestionTypeEnum type, Pageable pageable) {
+        Pageable page = searchResultCache.capPageSize(pageable);
+        return searchResultCache.get(SEARCH_ENTITY, page, () -> {
+            Page<Question> questionPage;
+            if (fullTextSearch.supports(content)) {
+                Page<UUID> ids = fullTextSearch.searchQuestionIds(content, type, page);
+                questionPage = TwoPhasePager.inOrder(ids,
+                        questionRepository.findByIdIn(ids.getContent()), Question::getId);
+            } else {
+                Specification<Question> spec = Specification
+                        .where(QuestionSpecification.hasContent(content))
+                        .and(QuestionSpecification.hasType(type));
+                questionPage = twoPhasePager.page(Question.class, spec, FullTextSearchRepository.withoutRelevance(page),
+                        questionRepository::findByIdIn, Question::getId);
+            }
+            
+            return PageResponseDTO.from(toResponsePage(questionPage));
+        }, content, type);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<QuestionResponseDTO> scroll(String content, QuestionTypeEnum type, String cursor, int size, Sort sort) {
         Specification<Question> spec = Specification
                 .where(QuestionSpecification.hasContent(content))
                 .and(QuestionSpecification.hasType(type));
-        
-        Page<Question> questionPage = questionRepository.findAll(spec, pageable);
-        
-        Page<QuestionResponseDTO> responsePage = questionPage.map(questionMapper::toResponseDTO);
-        return PageResponseDTO.from(responsePage);
+        return keysetPager.scroll(questionRepository, spec, SCROLL_KEYS, sort, cursor, size, this::reloadWithAnswers);
     }
 
     @Override
@@ -96,11 +142,13 @@ public class QuestionServiceImpl implements QuestionService {
         Question question = questionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(ENTITY_NAME, "id", id));
         
+        List<String> previousTags = dependencyTags(question);
         questionMapper.updateEntityFromDTO(requestDTO, question);
         
         updateAnswers(question, requestDTO.answers());
         
         Question updatedQuestion = questionRepository.save(question);
+        evictQuizCaches(updatedQuestion, previousTags);
         
         return questionMapper.toResponseDTO(updatedQuestion);
     }
@@ -111,11 +159,11 @@ public class QuestionServiceImpl implements QuestionService {
         Set<UUID> requestedIds = answerDTOs.stream()
                 .map(AnswerRequestDTO::id)
                 .filter(Objects::nonNull)
-                .collect(java.util.stream.Collectors.toSet());
+                .collect(Collectors.toSet());
         
         Set<Answer> answersToDelete = currentAnswers.stream()
                 .filter(answer -> !requestedIds.contains(answer.getId()))
-                .collect(java.util.stream.Collectors.toSet());
+                .collect(Collectors.toSet());
         answerRepository.deleteAll(answersToDelete);
         currentAnswers.removeAll(answersToDelete);
         
@@ -142,10 +190,71 @@ public class QuestionServiceImpl implements QuestionService {
         Question question = questionRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException(ENTITY_NAME, "id", id));
         
+        List<String> tags = dependencyTags(question);
         question.setIsDeleted(true);
         
         question.getAnswers().forEach(answer -> answer.setIsDeleted(true));
         
         questionRepository.save(question);
+        evictQuizCaches(question, tags);
+    }
+
+    /**
+     * Evict every cached quiz entry that embeds the question or one of its answers
+     * as they were before the change, plus the grading keys of its quizzes and the
+     * cached question and quiz searches (quiz pages carry question counts).
+     */
+    private void evictQuizCaches(Question question, List<String> tags) {
+        question.getQuizzes().forEach(quiz -> gradingKeyCache.evict(quiz.getId()));
+        cacheDependencyTracker.evictDependents(tags);
+        searchResultCache.invalidate(SEARCH_ENTITY);
+        searchResultCache.invalidate(QuizServiceImpl.SEARCH_ENTITY);
+    }
+
+    /**
+     * Scroll slices come back without answers; reload them in one query with their
+     * answers and quizzes instead of loading the answers question by question
+     */
+    private List<QuestionResponseDTO> reloadWithAnswers(List<Question> slice) {
+        if (slice.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Question> loaded = questionRepository.findByIdIn(slice.stream().map(Question::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+        return toResponseDTOs(slice.stream()
+                .map(question -> loaded.getOrDefault(question.getId(), question))
+                .toList());
+    }
+
+    private Page<QuestionResponseDTO> toResponsePage(Page<Question> questionPage) {
+        return new PageImpl<>(toResponseDTOs(questionPage.getContent()),
+                questionPage.getPageable(), questionPage.getTotalElements());
+    }
+
+    /**
+     * List items for questions already loaded, with the quizzes of all of them read in
+     * one query rather than from each question's quiz set
+     */
+    private List<QuestionResponseDTO> toResponseDTOs(List<Question> questions) {
+        if (questions.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, List<QuestionResponseDTO.QuizInfoDTO>> quizzesByQuestion = questionRepository
+                .findQuizRowsByQuestionIdIn(questions.stream().map(Question::getId).toList()).stream()
+                .collect(Collectors.groupingBy(QuestionQuizRow::questionId,
+                        Collectors.mapping(QuestionQuizRow::toQuizInfo,
+                                Collectors.toList())));
+        return questions.stream()
+                .map(question -> questionMapper.toResponseDTO(question,
+                        quizzesByQuestion.getOrDefault(question.getId(), List.of())))
+                .toList();
+    }
+
+    private List<String> dependencyTags(Question question) {
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheDependencyTracker.questionTag(question.getId()));
+        question.getAnswers().forEach(answer -> tags.add(CacheDependencyTracker.answerTag(answer.getId())));
+        return tags;
     }
 }
@@ -1,10 +1,13 @@
 package fpt.kiennt169.springboot.services;
 
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
+import fpt.kiennt169.springboot.dtos.quizzes.ExamPaperResponseDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizDetailResponseDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizRequestDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizResponseDTO;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import java.util.UUID;
 
 /**
@@ -15,6 +18,7 @@ import java.util.UUID;
  * - Search and filtering quizzes
  * - Managing quiz-question relationships
  * - Retrieving quiz details with associated questions
+ * - Building the exam paper shown to takers
  * 
  * @author kiennt169
  * @version 1.0
@@ -47,6 +51,19 @@ public interface QuizService {
      */
     PageResponseDTO<QuizResponseDTO> searchWithPaging(String title, Boolean active, Pageable pageable);
     
+    /**
+     * Scroll quizzes with keyset pagination
+     * No count query is run and deep slices cost the same as the first
+     * 
+     * @param title the title to search (optional, case-insensitive)
+     * @param active filter by active status (optional)
+     * @param cursor the cursor returned with the previous slice (null for the first slice)
+     * @param size number of items per slice
+     * @param sort sort order over whitelisted keys
+     * @return slice of quizzes with the cursor to the next slice
+     */
+    CursorPageResponseDTO<QuizResponseDTO> scroll(String title, Boolean active, String cursor, int size, Sort sort);
+    
     /**
      * Get a quiz by ID
      * 
@@ -79,6 +96,16 @@ public interface QuizService {
      */
     QuizDetailResponseDTO getWithQuestions(UUID id);
     
+    /**
+     * Get the exam paper of an active quiz, without correct answers.
+     * Shared by all takers and cached until the quiz or its questions change.
+     * Carries a content hash that clients can use to revalidate their copy.
+     * 
+     * @param id the quiz ID
+     * @return exam paper with questions and answer choices
+     */
+    ExamPaperResponseDTO getExamPaper(UUID id);
+    
     /**
      * Add questions to a quiz
      * 
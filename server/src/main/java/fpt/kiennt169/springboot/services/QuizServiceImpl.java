@@ -1,35 +1,66 @@
 package fpt.kiennt169.springboot.services;
 
+import fpt.kiennt169.springboot.cache.CacheDependencyTracker;
+import fpt.kiennt169.springboot.cache.SearchResultCache;
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
+import fpt.kiennt169.springboot.dtos.quizzes.ExamPaperResponseDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizDetailResponseDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizRequestDTO;
 import fpt.kiennt169.springboot.dtos.quizzes.QuizResponseDTO;
+import fpt.kiennt169.springboot.dtos.quizzes.QuizSummaryRow;
 import fpt.kiennt169.springboot.entities.Question;
 import fpt.kiennt169.springboot.entities.Quiz;
+import fpt.kiennt169.springboot.exceptions.QuizNotActiveException;
 import fpt.kiennt169.springboot.exceptions.ResourceNotFoundException;
+import fpt.kiennt169.springboot.grading.GradingKeyCache;
 import fpt.kiennt169.springboot.mappers.QuizMapper;
+import fpt.kiennt169.springboot.pagination.KeysetPager;
+import fpt.kiennt169.springboot.pagination.TwoPhasePager;
 import fpt.kiennt169.springboot.repositories.QuestionRepository;
 import fpt.kiennt169.springboot.repositories.QuizRepository;
+import fpt.kiennt169.springboot.search.FullTextSearchRepository;
 import fpt.kiennt169.springboot.specifications.QuizSpecification;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class QuizServiceImpl implements QuizService {
 
+    static final String SEARCH_ENTITY = "quiz";
+
+    private static final Map<String, Class<?>> SCROLL_KEYS = Map.of(
+            "createdAt", LocalDateTime.class,
+            "title", String.class,
+            "durationMinutes", Integer.class);
+
     private final QuizRepository quizRepository;
     private final QuestionRepository questionRepository;
     private final QuizMapper quizMapper;
+    private final GradingKeyCache gradingKeyCache;
+    private final CacheDependencyTracker cacheDependencyTracker;
+    private final SearchResultCache searchResultCache;
+    private final FullTextSearchRepository fullTextSearch;
+    private final KeysetPager keysetPager;
+    private final TwoPhasePager twoPhasePager;
 
     @Override
     public QuizResponseDTO create(QuizRequestDTO requestDTO) {
@@ -40,33 +71,55 @@ public class QuizServiceImpl implements QuizService {
         }
 
         Quiz savedQuiz = quizRepository.save(quiz);
+        searchResultCache.invalidate(SEARCH_ENTITY);
         return quizMapper.toResponseDTO(savedQuiz);
     }
 
     @Override
     @Transactional(readOnly = true)
     public PageResponseDTO<QuizResponseDTO> getWithPaging(Pageable pageable) {
-        Page<Quiz> quizPage = quizRepository.findAll(pageable);
-        Page<QuizResponseDTO> responsePage = quizPage.map(quizMapper::toResponseDTO);
+        Page<QuizSummaryRow> quizPage = twoPhasePager.page(Quiz.class, null, pageable,
+                quizRepository::findSummariesByIdIn, QuizSummaryRow::id);
+        Page<QuizResponseDTO> responsePage = quizPage.map(QuizSummaryRow::toResponseDTO);
         return PageResponseDTO.from(responsePage);
     }
 
     @Override
     @Transactional(readOnly = true)
     public PageResponseDTO<QuizResponseDTO> searchWithPaging(String title, Boolean active, Pageable pageable) {
+        Pageable page = searchResultCache.capPageSize(pageable);
+        return searchResultCache.get(SEARCH_ENTITY, page, () -> {
+            Page<QuizSummaryRow> quizPage;
+            if (fullTextSearch.supports(title)) {
+                Page<UUID> ids = fullTextSearch.searchQuizIds(title, active, page);
+                quizPage = TwoPhasePager.inOrder(ids,
+                        ids.hasContent() ? quizRepository.findSummariesByIdIn(ids.getContent()) : List.of(),
+                        QuizSummaryRow::id);
+            } else {
+                Specification<Quiz> spec = Specification
+                        .where(QuizSpecification.hasTitle(title))
+                        .and(QuizSpecification.isActive(active));
+                quizPage = twoPhasePager.page(Quiz.class, spec, FullTextSearchRepository.withoutRelevance(page),
+                        quizRepository::findSummariesByIdIn, QuizSummaryRow::id);
+            }
+
+            Page<QuizResponseDTO> responsePage = quizPage.map(QuizSummaryRow::toResponseDTO);
+            return PageResponseDTO.from(responsePage);
+        }, title, active);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<QuizResponseDTO> scroll(String title, Boolean active, String cursor, int size, Sort sort) {
         Specification<Quiz> spec = Specification
                 .where(QuizSpecification.hasTitle(title))
                 .and(QuizSpecification.isActive(active));
-
-        Page<Quiz> quizPage = quizRepository.findAll(spec, pageable);
-
-        Page<QuizResponseDTO> responsePage = quizPage.map(quizMapper::toResponseDTO);
-        return PageResponseDTO.from(responsePage);
+        return keysetPager.scroll(quizRepository, spec, SCROLL_KEYS, sort, cursor, size, this::toResponseDTOs);
     }
 
     @Override
     @Transactional(readOnly = true)
-    @org.springframework.cache.annotation.Cacheable(value = "quizzes", key = "'basic::' + #id")
+    @org.springframework.cache.annotation.Cacheable(value = "quizzes", key = "'basic::' + #id", sync = true)
     public QuizResponseDTO getById(UUID id) {
         Quiz quiz = quizRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Quiz", "id", id));
@@ -75,11 +128,28 @@ public class QuizServiceImpl implements QuizService {
 
     @Override
     @Transactional(readOnly = true)
-    @org.springframework.cache.annotation.Cacheable(value = "quizzes", key = "'details::' + #id")
+    @org.springframework.cache.annotation.Cacheable(value = "quizzes", key = "'details::' + #id", sync = true)
     public QuizDetailResponseDTO getWithQuestions(UUID id) {
         Quiz quiz = quizRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Quiz", "id", id));
-        return quizMapper.toDetailResponseDTO(quiz);
+        QuizDetailResponseDTO details = quizMapper.toDetailResponseDTO(quiz);
+        cacheDependencyTracker.register("quizzes", "details::" + id, dependencyTags(quiz));
+        return details;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @org.springframework.cache.annotation.Cacheable(value = "quizzes", key = "'exam::' + #id", sync = true)
+    public ExamPaperResponseDTO getExamPaper(UUID id) {
+        Quiz quiz = quizRepository.findByIdWithQuestionsAndAnswers(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz", "id", id));
+        if (!Boolean.TRUE.equals(quiz.getActive()) || quiz.getQuestions().isEmpty()) {
+            throw new QuizNotActiveException(id);
+        }
+        ExamPaperResponseDTO paper = quizMapper.toExamPaperDTO(quiz);
+        paper.setContentHash(quizMapper.examPaperHash(paper));
+        cacheDependencyTracker.register("quizzes", "exam::" + id, dependencyTags(quiz));
+        return paper;
     }
 
     @Override
@@ -95,11 +165,15 @@ public class QuizServiceImpl implements QuizService {
         quizMapper.updateEntityFromDTO(requestDTO, quiz);
 
         Quiz updatedQuiz = quizRepository.save(quiz);
+        gradingKeyCache.evict(id);
+        searchResultCache.invalidate(SEARCH_ENTITY);
+        searchResultCache.invalidate(QuestionServiceImpl.SEARCH_ENTITY);
         return quizMapper.toResponseDTO(updatedQuiz);
     }
 
     @Override
     @Caching(evict = {
+            @CacheEvict(value = "quizzes", key = "'basic::' + #id"),
             @CacheEvict(value = "quizzes", key = "'details::' + #id"),
             @CacheEvict(value = "quizzes", key = "'exam::' + #id")
     })
@@ -108,10 +182,14 @@ public class QuizServiceImpl implements QuizService {
             throw new ResourceNotFoundException("Quiz", "id", id);
         }
         quizRepository.deleteById(id);
+        gradingKeyCache.evict(id);
+        searchResultCache.invalidate(SEARCH_ENTITY);
+        searchResultCache.invalidate(QuestionServiceImpl.SEARCH_ENTITY);
     }
 
     @Override
     @Caching(evict = {
+            @CacheEvict(value = "quizzes", key = "'basic::' + #quizId"),
             @CacheEvict(value = "quizzes", key = "'details::' + #quizId"),
             @CacheEvict(value = "quizzes", key = "'exam::' + #quizId"),
             @CacheEvict(value = "questions", key = "'quiz::' + #quizId")
@@ -125,12 +203,16 @@ public class QuizServiceImpl implements QuizService {
                     .orElseThrow(() -> new ResourceNotFoundException("Question", "id", questionId));
             addQuestionIfNotExists(quiz, question);
         }
+        gradingKeyCache.evict(quizId);
+        searchResultCache.invalidate(SEARCH_ENTITY);
+        searchResultCache.invalidate(QuestionServiceImpl.SEARCH_ENTITY);
 
         return getQuizWithDetails(quizId);
     }
 
     @Override
     @Caching(evict = {
+            @CacheEvict(value = "quizzes", key = "'basic::' + #quizId"),
             @CacheEvict(value = "quizzes", key = "'details::' + #quizId"),
             @CacheEvict(value = "quizzes", key = "'exam::' + #quizId"),
             @CacheEvict(value = "questions", key = "'quiz::' + #quizId")
@@ -144,6 +226,9 @@ public class QuizServiceImpl implements QuizService {
 
         quiz.getQuestions().remove(question);
         quizRepository.save(quiz);
+        gradingKeyCache.evict(quizId);
+        searchResultCache.invalidate(SEARCH_ENTITY);
+        searchResultCache.invalidate(QuestionServiceImpl.SEARCH_ENTITY);
     }
 
     private void addQuestionIfNotExists(Quiz quiz, Question question) {
@@ -153,6 +238,33 @@ public class QuizServiceImpl implements QuizService {
         }
     }
 
+    /**
+     * List items for quizzes already loaded, in the same order, with their question
+     * counts read in one query rather than from each quiz's question collection
+     */
+    private List<QuizResponseDTO> toResponseDTOs(List<Quiz> quizzes) {
+        if (quizzes.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, QuizSummaryRow> rows = quizRepository
+                .findSummariesByIdIn(quizzes.stream().map(Quiz::getId).toList()).stream()
+                .collect(Collectors.toMap(QuizSummaryRow::id, Function.identity()));
+        return quizzes.stream()
+                .map(quiz -> rows.get(quiz.getId()))
+                .filter(Objects::nonNull)
+                .map(QuizSummaryRow::toResponseDTO)
+                .toList();
+    }
+
+    private List<String> dependencyTags(Quiz quiz) {
+        List<String> tags = new ArrayList<>();
+        for (Question question : quiz.getQuestions()) {
+            tags.add(CacheDependencyTracker.questionTag(question.getId()));
+            question.getAnswers().forEach(answer -> tags.add(CacheDependencyTracker.answerTag(answer.getId())));
+        }
+        return tags;
+    }
+
     private QuizDetailResponseDTO getQuizWithDetails(UUID quizId) {
         Quiz quiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new ResourceNotFoundException("Quiz", "id", quizId));
@@ -1,8 +1,10 @@
 package fpt.kiennt169.springboot.services;
 
 import fpt.kiennt169.springboot.entities.RefreshToken;
+import fpt.kiennt169.springboot.entities.RefreshTokenRotation;
 
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * RefreshTokenService Interface
@@ -22,6 +24,28 @@ public interface RefreshTokenService {
      */
     void saveRefreshToken(RefreshToken refreshToken, long ttlSeconds);
 
+    /**
+     * Atomically replace a refresh token with a new one
+     * Fails if the current token was already rotated or revoked
+     * On success the rotation is kept under the current token for the reuse grace window
+     * 
+     * @param current the token presented by the client
+     * @param rotation the access token and refresh token to issue instead
+     * @param ttlSeconds Time-To-Live of the replacement in seconds
+     * @param graceMillis how long the rotation stays readable by {@link #findRotation(String)}; 0 disables
+     * @return true if rotated, false if the current token is no longer valid
+     */
+    boolean rotateToken(RefreshToken current, RefreshTokenRotation rotation, long ttlSeconds, long graceMillis);
+
+    /**
+     * Find the rotation recently made with a token that is no longer valid
+     * Empty once the grace window has passed or the issued refresh token was revoked
+     * 
+     * @param token the token string that was rotated
+     * @return Optional containing the rotation if still within the grace window
+     */
+    Optional<RefreshTokenRotation> findRotation(String token);
+
     /**
      * Find refresh token by token string
      * 
@@ -40,10 +64,25 @@ public interface RefreshTokenService {
     Optional<RefreshToken> findByEmail(String email);
 
     /**
-     * Delete refresh token
+     * Revoke a refresh token in a single atomic operation
      * Called on logout or when token is compromised
      * 
+     * @param refreshToken the token to revoke
+     */
+    void revokeToken(RefreshToken refreshToken);
+
+    /**
+     * Delete refresh token by its string
+     * Looks the token up first; prefer {@link #revokeToken(RefreshToken)} when it is at hand
+     * 
      * @param token the token string to delete
      */
     void deleteToken(String token);
+
+    /**
+     * Revoke every refresh token of a user, e.g. on deactivation or password change
+     * 
+     * @param userId the user's ID
+     */
+    void revokeUserTokens(UUID userId);
 }
@@ -1,50 +1,96 @@
 package fpt.kiennt169.springboot.services;
 
+import fpt.kiennt169.springboot.codec.PayloadCodec;
 import fpt.kiennt169.springboot.entities.RefreshToken;
+import fpt.kiennt169.springboot.entities.RefreshTokenRotation;
 import fpt.kiennt169.springboot.exceptions.TokenServiceException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+/**
+ * Redis-backed refresh token store.
+ *
+ * A token is kept under {@code refresh_token:{token}}, listed in the user's
+ * {@code refresh_token:user:{userId}} hash, and the user's current token is pointed to
+ * by {@code refresh_token:email:{email}}. Save, rotate and revoke each update all three
+ * in one atomic Lua script, preloaded at startup and run with EVALSHA. A rotation also
+ * leaves its result under {@code refresh_token:rotated:{token}} for a few seconds, so
+ * callers that lose the race for the same token can reuse it.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final MeterRegistry meterRegistry;
 
     private static final String TOKEN_PREFIX = "refresh_token:";
     private static final String USER_TOKENS_PREFIX = "refresh_token:user:";
     private static final String EMAIL_TOKEN_PREFIX = "refresh_token:email:";
+    private static final String ROTATED_PREFIX = "refresh_token:rotated:";
+
+    private static final RedisScript<Long> SAVE_SCRIPT = script("redis/refresh-token-save.lua");
+    private static final RedisScript<Long> ROTATE_SCRIPT = script("redis/refresh-token-rotate.lua");
+    private static final RedisScript<Long> REVOKE_SCRIPT = script("redis/refresh-token-revoke.lua");
+
+    /** Script arguments: serialized values pass through, everything else is sent as a UTF-8 string. */
+    private static final RedisSerializer<Object> SCRIPT_ARGS = new RedisSerializer<>() {
+        @Override
+        public byte[] serialize(Object value) {
+            return value instanceof byte[] bytes ? bytes : String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            return bytes;
+        }
+    };
+
+    private static final RedisSerializer<Long> SCRIPT_RESULT = new GenericToStringSerializer<>(Long.class);
+
+    @PostConstruct
+    void loadScripts() {
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                for (RedisScript<Long> script : List.of(SAVE_SCRIPT, ROTATE_SCRIPT, REVOKE_SCRIPT)) {
+                    connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            log.info("Refresh token scripts loaded");
+        } catch (Exception e) {
+            // EVALSHA falls back to EVAL and reloads the script on first use
+            log.warn("Failed to preload refresh token scripts: {}", e.getMessage());
+        }
+    }
 
     @Override
     public void saveRefreshToken(RefreshToken refreshToken, long ttlSeconds) {
-        String tokenKey = TOKEN_PREFIX + refreshToken.getToken();
-        String userTokensKey = USER_TOKENS_PREFIX + refreshToken.getUserId();
-        String emailTokenKey = EMAIL_TOKEN_PREFIX + refreshToken.getEmail();
-
         try {
-            redisTemplate.opsForValue().set(tokenKey, refreshToken, ttlSeconds, TimeUnit.SECONDS);
-
-            redisTemplate.opsForHash().put(userTokensKey, 
-                refreshToken.getToken(), 
-                refreshToken.getCreatedAt().toString());
-            redisTemplate.expire(userTokensKey, ttlSeconds, TimeUnit.SECONDS);
-
-            String previousToken = (String) redisTemplate.opsForValue().get(emailTokenKey);
-            
-            if (previousToken != null && !previousToken.equals(refreshToken.getToken())) {
-                log.debug("Deleting previous token for email: {}", refreshToken.getEmail());
-                deleteToken(previousToken);
-            }
-            
-            redisTemplate.opsForValue().set(emailTokenKey, refreshToken.getToken(), 
-                ttlSeconds, TimeUnit.SECONDS);
-            
+            timed("save", () -> redisTemplate.execute(SAVE_SCRIPT, SCRIPT_ARGS, SCRIPT_RESULT,
+                    keys(refreshToken.getToken(), refreshToken),
+                    serialize(refreshToken),
+                    ttlSeconds,
+                    refreshToken.getToken(),
+                    refreshToken.getCreatedAt().toString(),
+                    TOKEN_PREFIX));
+
             log.debug("Refresh token saved to Redis - Email: {}, TTL: {}s", 
                 refreshToken.getEmail(), ttlSeconds);
 
@@ -54,19 +100,73 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
         }
     }
 
+    @Override
+    public boolean rotateToken(RefreshToken current, RefreshTokenRotation rotation, long ttlSeconds, long graceMillis) {
+        RefreshToken replacement = rotation.getRefreshToken();
+        List<String> keys = new ArrayList<>(keys(current.getToken(), current));
+        keys.add(TOKEN_PREFIX + replacement.getToken());
+        keys.add(ROTATED_PREFIX + current.getToken());
+
+        try {
+            Long rotated = timed("rotate", () -> redisTemplate.execute(ROTATE_SCRIPT, SCRIPT_ARGS, SCRIPT_RESULT,
+                    keys,
+                    current.getToken(),
+                    replacement.getToken(),
+                    serialize(replacement),
+                    ttlSeconds,
+                    replacement.getCreatedAt().toString(),
+                    serialize(rotation),
+                    Math.max(graceMillis, 0)));
+
+            if (rotated == null || rotated == 0L) {
+                log.warn("Refresh token was already used or revoked - User: {}", current.getEmail());
+                return false;
+            }
+            log.debug("Refresh token rotated - Email: {}, TTL: {}s", replacement.getEmail(), ttlSeconds);
+            return true;
+
+        } catch (Exception e) {
+            log.error("Failed to rotate refresh token in Redis", e);
+            throw new TokenServiceException("Failed to rotate refresh token", e);
+        }
+    }
+
+    @Override
+    public Optional<RefreshTokenRotation> findRotation(String token) {
+        try {
+            RefreshTokenRotation rotation = timed("find_rotation",
+                    () -> (RefreshTokenRotation) redisTemplate.opsForValue().get(ROTATED_PREFIX + token));
+            if (rotation == null) {
+                return Optional.empty();
+            }
+
+            // A logout within the grace window revokes the issued token; do not hand it out again
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(TOKEN_PREFIX + rotation.getRefreshToken().getToken()))) {
+                log.debug("Rotated refresh token was revoked: {}", token.substring(0, 10) + "...");
+                return Optional.empty();
+            }
+            return Optional.of(rotation);
+
+        } catch (Exception e) {
+            log.error("Failed to retrieve refresh token rotation from Redis", e);
+            return Optional.empty();
+        }
+    }
+
     @Override
     public Optional<RefreshToken> findByToken(String token) {
         String tokenKey = TOKEN_PREFIX + token;
 
         try {
-            RefreshToken refreshToken = (RefreshToken) redisTemplate.opsForValue().get(tokenKey);
+            RefreshToken refreshToken = timed("find",
+                    () -> (RefreshToken) redisTemplate.opsForValue().get(tokenKey));
 
             if (refreshToken != null) {
                 log.debug("Refresh token found in Redis: {}", token.substring(0, 10) + "...");
                 
                 if (refreshToken.isExpired()) {
                     log.warn("Found expired token in Redis, deleting: {}", token.substring(0, 10) + "...");
-                    deleteToken(token);
+                    revokeToken(refreshToken);
                     return Optional.empty();
                 }
                 
@@ -87,10 +187,11 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
         String emailTokenKey = EMAIL_TOKEN_PREFIX + email;
 
         try {
-            String token = (String) redisTemplate.opsForValue().get(emailTokenKey);
-            if (token != null) {
+            byte[] pointer = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                    connection.stringCommands().get(emailTokenKey.getBytes(StandardCharsets.UTF_8)));
+            if (pointer != null) {
                 log.debug("Found token for email: {}", email);
-                return findByToken(token);
+                return findByToken(readPointer(pointer));
             }
 
             log.debug("No token found for email: {}", email);
@@ -103,26 +204,30 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     }
 
     @Override
-    public void deleteToken(String token) {
+    public void revokeToken(RefreshToken refreshToken) {
         try {
-            String tokenKey = TOKEN_PREFIX + token;
-            
-            RefreshToken refreshToken = (RefreshToken) redisTemplate.opsForValue().get(tokenKey);
+            Long removed = timed("revoke", () -> redisTemplate.execute(REVOKE_SCRIPT, SCRIPT_ARGS, SCRIPT_RESULT,
+                    keys(refreshToken.getToken(), refreshToken),
+                    refreshToken.getToken()));
 
-            if (refreshToken != null) {
-                String userTokensKey = USER_TOKENS_PREFIX + refreshToken.getUserId();
-                String emailTokenKey = EMAIL_TOKEN_PREFIX + refreshToken.getEmail();
+            if (removed != null && removed > 0) {
+                log.info("Refresh token deleted from Redis - User: {}", refreshToken.getEmail());
+            } else {
+                log.debug("Token already deleted or expired: {}", refreshToken.getToken().substring(0, 10) + "...");
+            }
 
-                redisTemplate.delete(tokenKey);
+        } catch (Exception e) {
+            log.error("Failed to delete refresh token from Redis", e);
+        }
+    }
 
-                redisTemplate.opsForHash().delete(userTokensKey, token);
+    @Override
+    public void deleteToken(String token) {
+        try {
+            RefreshToken refreshToken = (RefreshToken) redisTemplate.opsForValue().get(TOKEN_PREFIX + token);
 
-                String currentEmailToken = (String) redisTemplate.opsForValue().get(emailTokenKey);
-                if (token.equals(currentEmailToken)) {
-                    redisTemplate.delete(emailTokenKey);
-                }
-                
-                log.info("Refresh token deleted from Redis - User: {}", refreshToken.getEmail());
+            if (refreshToken != null) {
+                revokeToken(refreshToken);
             } else {
                 log.debug("Token already deleted or expired: {}", token.substring(0, 10) + "...");
             }
@@ -131,4 +236,60 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
             log.error("Failed to delete refresh token from Redis", e);
         }
     }
+
+    @Override
+    public void revokeUserTokens(UUID userId) {
+        String userTokensKey = USER_TOKENS_PREFIX + userId;
+        try {
+            Set<Object> tokens = redisTemplate.opsForHash().keys(userTokensKey);
+            for (Object token : tokens) {
+                RefreshToken refreshToken = (RefreshToken) redisTemplate.opsForValue().get(TOKEN_PREFIX + token);
+                if (refreshToken != null) {
+                    revokeToken(refreshToken);
+                }
+            }
+            redisTemplate.delete(userTokensKey);
+            log.info("Revoked {} refresh tokens for user: {}", tokens.size(), userId);
+
+        } catch (Exception e) {
+            log.error("Failed to revoke refresh tokens for user: {}", userId, e);
+        }
+    }
+
+    private List<String> keys(String token, RefreshToken owner) {
+        return List.of(
+            TOKEN_PREFIX + token,
+            USER_TOKENS_PREFIX + owner.getUserId(),
+            EMAIL_TOKEN_PREFIX + owner.getEmail()
+        );
+    }
+
+    private byte[] serialize(Object value) {
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        return valueSerializer.serialize(value);
+    }
+
+    /**
+     * Email pointers are plain strings; pointers written before the scripts went through
+     * the value serializer and are decoded with it.
+     */
+    private String readPointer(byte[] pointer) {
+        if (PayloadCodec.isFramed(pointer) || (pointer.length > 0 && pointer[0] == '"')) {
+            return (String) redisTemplate.getValueSerializer().deserialize(pointer);
+        }
+        return new String(pointer, StandardCharsets.UTF_8);
+    }
+
+    private <T> T timed(String operation, Supplier<T> call) {
+        return Timer.builder("auth.refresh.token.store")
+                .description("Latency of refresh token store operations")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(call);
+    }
+
+    private static RedisScript<Long> script(String path) {
+        return RedisScript.of(new ClassPathResource(path), Long.class);
+    }
 }
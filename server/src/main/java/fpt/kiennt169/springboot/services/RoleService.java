@@ -1,9 +1,11 @@
 package fpt.kiennt169.springboot.services;
 
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
 import fpt.kiennt169.springboot.dtos.roles.RoleRequestDTO;
 import fpt.kiennt169.springboot.dtos.roles.RoleResponseDTO;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import java.util.UUID;
 
 /**
@@ -43,6 +45,18 @@ public interface RoleService {
      */
     PageResponseDTO<RoleResponseDTO> search(String name, Pageable pageable);
     
+    /**
+     * Scroll roles with keyset pagination
+     * No count query is run and deep slices cost the same as the first
+     * 
+     * @param name the role name to search for (optional)
+     * @param cursor the cursor returned with the previous slice (null for the first slice)
+     * @param size number of items per slice
+     * @param sort sort order over whitelisted keys
+     * @return slice of roles with the cursor to the next slice
+     */
+    CursorPageResponseDTO<RoleResponseDTO> scroll(String name, String cursor, int size, Sort sort);
+    
     /**
      * Get a role by ID
      * 
@@ -1,26 +1,42 @@
 package fpt.kiennt169.springboot.services;
 
+import fpt.kiennt169.springboot.cache.SearchResultCache;
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
 import fpt.kiennt169.springboot.dtos.roles.RoleRequestDTO;
 import fpt.kiennt169.springboot.dtos.roles.RoleResponseDTO;
 import fpt.kiennt169.springboot.entities.Role;
+import fpt.kiennt169.springboot.enums.RoleEnum;
 import fpt.kiennt169.springboot.exceptions.ResourceNotFoundException;
+import fpt.kiennt169.springboot.pagination.KeysetPager;
 import fpt.kiennt169.springboot.repositories.RoleRepository;
+import fpt.kiennt169.springboot.specifications.RoleSpecification;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class RoleServiceImpl implements RoleService {
     
+    private static final Map<String, Class<?>> SCROLL_KEYS = Map.of(
+            "createdAt", LocalDateTime.class,
+            "name", RoleEnum.class);
+
     private final RoleRepository roleRepository;
+    private final SearchResultCache searchResultCache;
+    private final KeysetPager keysetPager;
+    private final UserAuthSnapshotService userAuthSnapshotService;
 
     @Override
     @Transactional
@@ -69,6 +85,14 @@ public class RoleServiceImpl implements RoleService {
         return PageResponseDTO.from(responsePage);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<RoleResponseDTO> scroll(String name, String cursor, int size, Sort sort) {
+        Specification<Role> spec = RoleSpecification.nameContains(name);
+        return keysetPager.scroll(roleRepository, spec, SCROLL_KEYS, sort, cursor, size,
+                roles -> roles.stream().map(this::mapToResponseDTO).toList());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PageResponseDTO<RoleResponseDTO> getAll(Pageable pageable) {
@@ -79,7 +103,7 @@ public class RoleServiceImpl implements RoleService {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "roles", key = "#id")
+    @Cacheable(value = "roles", key = "#id", sync = true)
     public RoleResponseDTO getById(UUID id) {
         Role role = roleRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Role", "id", id));
@@ -98,6 +122,9 @@ public class RoleServiceImpl implements RoleService {
         role.setName(requestDTO.name());
         role.setDescription(requestDTO.description());
         Role updatedRole = roleRepository.save(role);
+        // Cached user pages and auth snapshots embed role names
+        searchResultCache.invalidate(UserServiceImpl.SEARCH_ENTITY);
+        userAuthSnapshotService.evictAll();
         return mapToResponseDTO(updatedRole);
     }
 
@@ -111,6 +138,9 @@ public class RoleServiceImpl implements RoleService {
         
         try {
             roleRepository.deleteById(id);
+            // Cached user pages and auth snapshots embed role names
+            searchResultCache.invalidate(UserServiceImpl.SEARCH_ENTITY);
+            userAuthSnapshotService.evictAll();
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             throw new IllegalStateException(
                 "Cannot delete role with ID " + id + " - it is still assigned to one or more users. " +
@@ -0,0 +1,44 @@
+package fpt.kiennt169.springboot.services;
+
+import java.util.UUID;
+
+/**
+ * Service interface for revoking access tokens before they expire
+ * 
+ * Every node keeps the revocations in memory, so checking a token never leaves the
+ * process. Revocations are persisted in Redis for nodes that start later and
+ * broadcast to running nodes over pub/sub.
+ * 
+ * @author kiennt169
+ * @version 1.0
+ */
+public interface TokenRevocationService {
+
+    /**
+     * Revoke a single access token
+     * 
+     * @param jti the token's ID claim
+     * @param expiresAtMillis the token's expiry; the revocation is dropped after it
+     */
+    void revokeToken(String jti, long expiresAtMillis);
+
+    /**
+     * Revoke every access token issued to a user up to now, and all of the user's
+     * refresh tokens, e.g. on deactivation or password change.
+     * Deferred until after commit when called inside a transaction.
+     * 
+     * @param userId the user's ID (the token subject)
+     */
+    void revokeUser(UUID userId);
+
+    /**
+     * Check a verified token against the local revocation set
+     * 
+     * @param jti the token's ID claim, or null for tokens issued without one
+     * @param subject the token subject
+     * @param issuedAtMillis when the token was issued, to the millisecond; tokens issued
+     *        before the user's revocation time are rejected
+     * @return true if the token must be rejected
+     */
+    boolean isRevoked(String jti, String subject, long issuedAtMillis);
+}
@@ -0,0 +1,215 @@
+package fpt.kiennt169.springboot.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-memory access-token revocation set, synchronized across nodes.
+ *
+ * Revoked token IDs live in {@code auth:revoked:tokens} scored by token expiry; revoked
+ * users in {@code auth:revoked:users} scored by revocation time. Each node loads both on
+ * startup, applies updates from the {@code auth:revocations} topic, and drops entries
+ * once no token they cover can still be valid. Revoking a user also deletes the user's
+ * refresh tokens, so no new access token can be obtained with them.
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final String REVOKED_TOKENS_KEY = "auth:revoked:tokens";
+    private static final String REVOKED_USERS_KEY = "auth:revoked:users";
+    private static final String REVOCATION_TOPIC = "auth:revocations";
+    private static final String TOKEN_MESSAGE = "token";
+    private static final String USER_MESSAGE = "user";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedissonClient redissonClient;
+    private final RefreshTokenService refreshTokenService;
+    private final long jwtExpirationInMs;
+    private final Counter rejected;
+
+    /** jti -> token expiry */
+    private final Cache<String, Long> revokedTokens;
+    /** subject -> revocation time; tokens issued up to then are rejected */
+    private final Cache<String, Long> revokedUsers;
+
+    public TokenRevocationServiceImpl(StringRedisTemplate stringRedisTemplate, RedissonClient redissonClient,
+                                      RefreshTokenService refreshTokenService,
+                                      @Value("${jwt.expiration}") long jwtExpirationInMs,
+                                      MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redissonClient = redissonClient;
+        this.refreshTokenService = refreshTokenService;
+        this.jwtExpirationInMs = jwtExpirationInMs;
+        this.revokedTokens = Caffeine.newBuilder()
+                .expireAfter(expiringAt(expiresAt -> expiresAt))
+                .build();
+        this.revokedUsers = Caffeine.newBuilder()
+                .expireAfter(expiringAt(revokedAt -> revokedAt + jwtExpirationInMs))
+                .build();
+        this.rejected = Counter.builder("auth.token.revoked.rejections")
+                .description("Access tokens rejected because they were revoked")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.revocations", revokedTokens, cache -> cache.estimatedSize())
+                .description("Revocations held in memory")
+                .tag("type", TOKEN_MESSAGE)
+                .register(meterRegistry);
+        Gauge.builder("auth.token.revocations", revokedUsers, cache -> cache.estimatedSize())
+                .description("Revocations held in memory")
+                .tag("type", USER_MESSAGE)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        // Subscribe before loading so nothing revoked in between is missed
+        redissonClient.getTopic(REVOCATION_TOPIC).addListener(String.class, (channel, message) -> apply(message));
+
+        long now = System.currentTimeMillis();
+        try {
+            load(REVOKED_TOKENS_KEY, now, revokedTokens);
+            load(REVOKED_USERS_KEY, now - jwtExpirationInMs, revokedUsers);
+            log.info("Loaded {} revoked tokens and {} revoked users", 
+                revokedTokens.estimatedSize(), revokedUsers.estimatedSize());
+        } catch (Exception e) {
+            log.warn("Failed to load token revocations from Redis: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void revokeToken(String jti, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedTokens.put(jti, expiresAtMillis);
+        persistAndPublish(REVOKED_TOKENS_KEY, TOKEN_MESSAGE, jti, expiresAtMillis, System.currentTimeMillis());
+        log.debug("Access token revoked: {}", jti);
+    }
+
+    @Override
+    public void revokeUser(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRevokeUser(userId);
+                }
+            });
+        } else {
+            doRevokeUser(userId);
+        }
+    }
+
+    @Override
+    public boolean isRevoked(String jti, String subject, long issuedAtMillis) {
+        boolean revoked = false;
+        if (jti != null && revokedTokens.getIfPresent(jti) != null) {
+            revoked = true;
+        } else if (subject != null) {
+            Long revokedAt = revokedUsers.getIfPresent(subject);
+            revoked = revokedAt != null && issuedAtMillis < revokedAt;
+        }
+        if (revoked) {
+            rejected.increment();
+        }
+        return revoked;
+    }
+
+    private void doRevokeUser(UUID userId) {
+        String subject = userId.toString();
+        long now = System.currentTimeMillis();
+        revokedUsers.put(subject, now);
+        persistAndPublish(REVOKED_USERS_KEY, USER_MESSAGE, subject, now, now - jwtExpirationInMs);
+        refreshTokenService.revokeUserTokens(userId);
+        log.info("Access tokens revoked for user: {}", subject);
+    }
+
+    /**
+     * Record the revocation in Redis, pruning entries that can no longer match a valid
+     * token, then tell the other nodes. The local set is already updated.
+     */
+    private void persistAndPublish(String key, String type, String member, long score, long obsoleteBefore) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                connection.zSetCommands().zAdd(rawKey, score, member.getBytes(StandardCharsets.UTF_8));
+                connection.zSetCommands().zRemRangeByScore(rawKey, Double.NEGATIVE_INFINITY, obsoleteBefore);
+                return null;
+            });
+            redissonClient.getTopic(REVOCATION_TOPIC).publish(type + ":" + member + ":" + score);
+        } catch (Exception e) {
+            log.warn("Failed to share {} revocation for {}: {}", type, member, e.getMessage());
+        }
+    }
+
+    private void apply(String message) {
+        int first = message.indexOf(':');
+        int last = message.lastIndexOf(':');
+        if (first < 0 || last <= first) {
+            log.warn("Ignoring malformed revocation message: {}", message);
+            return;
+        }
+        String type = message.substring(0, first);
+        String member = message.substring(first + 1, last);
+        long score = Long.parseLong(message.substring(last + 1));
+
+        if (TOKEN_MESSAGE.equals(type)) {
+            revokedTokens.put(member, score);
+        } else if (USER_MESSAGE.equals(type)) {
+            revokedUsers.asMap().merge(member, score, Math::max);
+        }
+    }
+
+    private void load(String key, long minScore, Cache<String, Long> target) {
+        Set<ZSetOperations.TypedTuple<String>> entries =
+            stringRedisTemplate.opsForZSet().rangeByScoreWithScores(key, minScore, Double.POSITIVE_INFINITY);
+        if (entries == null) {
+            return;
+        }
+        for (ZSetOperations.TypedTuple<String> entry : entries) {
+            if (entry.getValue() != null && entry.getScore() != null) {
+                target.put(entry.getValue(), entry.getScore().longValue());
+            }
+        }
+    }
+
+    private static Expiry<String, Long> expiringAt(ToLongFunction<Long> deadline) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, Long value, long currentTime) {
+                return TimeUnit.MILLISECONDS.toNanos(
+                        Math.max(0, deadline.applyAsLong(value) - System.currentTimeMillis()));
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, Long value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, Long value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
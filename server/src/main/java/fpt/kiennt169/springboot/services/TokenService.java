@@ -1,6 +1,7 @@
 package fpt.kiennt169.springboot.services;
 
 import java.util.Set;
+import java.util.UUID;
 
 import org.springframework.security.core.Authentication;
 
@@ -27,6 +28,16 @@ public interface TokenService {
      * @return JWT access token string
      */
     String generateToken(User user, Set<String> roles);
+
+    /**
+     * Generate JWT access token from a user's ID and email
+     * 
+     * @param userId the user's ID, used as the token subject
+     * @param email the user's email
+     * @param roles the user's roles
+     * @return JWT access token string
+     */
+    String generateToken(UUID userId, String email, Set<String> roles);
     
     /**
      * Generate secure random refresh token
@@ -43,4 +54,12 @@ public interface TokenService {
      * @return Authentication object with user details and authorities
      */
     Authentication getAuthenticationFromToken(String token);
+
+    /**
+     * Revoke an access token on all nodes until it expires
+     * Invalid or already expired tokens are ignored
+     * 
+     * @param token the JWT access token
+     */
+    void revokeAccessToken(String token);
 }
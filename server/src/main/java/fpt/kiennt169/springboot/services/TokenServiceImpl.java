@@ -2,17 +2,28 @@ package fpt.kiennt169.springboot.services;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.crypto.SecretKey;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import fpt.kiennt169.springboot.util.ContentHashUtil;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,11 +33,28 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Service;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * JWT issuing and verification.
+ *
+ * The signing key and parser are built once. Verified access tokens are kept in a
+ * bounded cache keyed by the token's digest until they expire, so repeat requests
+ * with the same token skip signature verification and claim parsing; authority sets
+ * are shared per role combination. Every token, cached or not, is checked against the
+ * in-memory revocation set.
+ */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class TokenServiceImpl implements TokenService {
+
+    private static final int MAX_AUTHORITY_SETS = 256;
+    /** The standard iat claim has whole seconds; revocation checks need the exact issue time */
+    private static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
+    private final TokenRevocationService tokenRevocationService;
     
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -37,27 +65,89 @@ public class TokenServiceImpl implements TokenService {
     @Value("${jwt.refresh-expiration}")
     private Long refreshTokenExpirationInMs;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+    private final Map<Set<String>, Set<GrantedAuthority>> authoritySets = new ConcurrentHashMap<>();
+
+    private record VerifiedToken(
+        User principal,
+        Set<GrantedAuthority> authorities,
+        String jti,
+        String subject,
+        long issuedAtMillis,
+        long expiresAtMillis
+    ) {}
+
+    /**
+     * Configure and initialize an instance built outside Spring, as the benchmarks do
+     */
+    void configure(String jwtSecret, long jwtExpirationInMs, long refreshTokenExpirationInMs,
+                   long verifiedCacheMaxSize) {
+        this.jwtSecret = jwtSecret;
+        this.jwtExpirationInMs = jwtExpirationInMs;
+        this.refreshTokenExpirationInMs = refreshTokenExpirationInMs;
+        this.verifiedCacheMaxSize = verifiedCacheMaxSize;
+        init();
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(
+                                Math.max(0, value.expiresAtMillis() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     @Override
     public String generateToken(fpt.kiennt169.springboot.entities.User user, Set<String> roles) {
+        return generateToken(user.getId(), user.getEmail(), roles);
+    }
+
+    @Override
+    public String generateToken(UUID userId, String email, Set<String> roles) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        SecretKey key = getSigningKey();
-
         return Jwts.builder()
-                .subject(user.getId().toString())
-                .claim("username", user.getEmail())
-                .claim("email", user.getEmail())
+                .id(UUID.randomUUID().toString())
+                .subject(userId.toString())
+                .claim("username", email)
+                .claim("email", email)
                 .claim("roles", roles)
+                .claim(ISSUED_AT_MILLIS_CLAIM, now.getTime())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(key)
+                .signWith(signingKey)
                 .compact();
     }
     
     @Override
     public String generateRefreshToken() {
-        return java.util.UUID.randomUUID().toString().replace("-", "");
+        return UUID.randomUUID().toString().replace("-", "");
     }
 
     @Override
@@ -66,25 +156,59 @@ public class TokenServiceImpl implements TokenService {
             return null;
         }
 
+        VerifiedToken verified = verify(token);
+        if (verified == null) {
+            return null;
+        }
+        if (tokenRevocationService.isRevoked(verified.jti(), verified.subject(), verified.issuedAtMillis())) {
+            log.debug("Rejected revoked JWT token for user: {}", verified.principal().getUsername());
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(verified.principal(), token, verified.authorities());
+    }
+
+    @Override
+    public void revokeAccessToken(String token) {
+        VerifiedToken verified = token == null || token.isBlank() ? null : verify(token);
+        if (verified == null) {
+            return;
+        }
+        if (verified.jti() == null) {
+            log.warn("Cannot revoke JWT token without jti for user: {}", verified.principal().getUsername());
+            return;
+        }
+        tokenRevocationService.revokeToken(verified.jti(), verified.expiresAtMillis());
+    }
+
+    /**
+     * Verified claims of a token, from the cache or by parsing it
+     *
+     * @return the verified token, or null if it is invalid or expired
+     */
+    private VerifiedToken verify(String token) {
+        String digest = ContentHashUtil.hash(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        if (verified != null && verified.expiresAtMillis() > System.currentTimeMillis()) {
+            return verified;
+        }
+
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
 
             String email = claims.get("username", String.class);
             
             @SuppressWarnings("unchecked")
             List<String> roles = claims.get("roles", List.class);
 
-            Set<GrantedAuthority> authorities = roles.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toSet());
+            Set<GrantedAuthority> authorities = authoritiesFor(roles);
 
             User principal = new User(email, "", authorities);
+            long issuedAtMillis = issuedAtMillis(claims);
+            verified = new VerifiedToken(principal, authorities, claims.getId(), claims.getSubject(),
+                    issuedAtMillis, claims.getExpiration().getTime());
+            verifiedTokens.put(digest, verified);
 
-            return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+            return verified;
             
         } catch (ExpiredJwtException e) {
             log.warn("JWT token is expired: {}", e.getMessage());
@@ -98,7 +222,33 @@ public class TokenServiceImpl implements TokenService {
         }
     }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    /**
+     * Exact issue time; tokens issued before the millisecond claim fall back to iat,
+     * which rounds down and so errs towards rejecting them
+     */
+    private static long issuedAtMillis(Claims claims) {
+        Long millis = claims.get(ISSUED_AT_MILLIS_CLAIM, Long.class);
+        if (millis != null) {
+            return millis;
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+    }
+
+    /**
+     * Shared, immutable authority set for a role combination
+     */
+    private Set<GrantedAuthority> authoritiesFor(List<String> roles) {
+        Set<String> roleSet = Set.copyOf(roles);
+        Set<GrantedAuthority> authorities = authoritySets.get(roleSet);
+        if (authorities != null) {
+            return authorities;
+        }
+        authorities = roleSet.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableSet());
+        if (authoritySets.size() < MAX_AUTHORITY_SETS) {
+            authoritySets.putIfAbsent(roleSet, authorities);
+        }
+        return authorities;
     }
 }
@@ -0,0 +1,36 @@
+package fpt.kiennt169.springboot.services;
+
+import fpt.kiennt169.springboot.dtos.users.UserAuthSnapshot;
+
+/**
+ * Service interface for the cached authentication view of users
+ * 
+ * Login, refresh, /me and Spring Security's UserDetails lookup all read the same
+ * snapshot, so a warm cache answers them without touching the database.
+ * 
+ * @author kiennt169
+ * @version 1.0
+ */
+public interface UserAuthSnapshotService {
+
+    /**
+     * Get the authentication snapshot of a user, loading it on a cache miss
+     * 
+     * @param email the user's email
+     * @return the snapshot
+     * @throws fpt.kiennt169.springboot.exceptions.ResourceNotFoundException if no user has this email
+     */
+    UserAuthSnapshot getByEmail(String email);
+
+    /**
+     * Drop a user's snapshot; deferred until after commit inside a transaction
+     * 
+     * @param email the user's email
+     */
+    void evict(String email);
+
+    /**
+     * Drop all snapshots, e.g. after a role was renamed or removed
+     */
+    void evictAll();
+}
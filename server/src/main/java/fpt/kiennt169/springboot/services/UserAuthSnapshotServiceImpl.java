@@ -0,0 +1,66 @@
+package fpt.kiennt169.springboot.services;
+
+import fpt.kiennt169.springboot.dtos.users.UserAuthSnapshot;
+import fpt.kiennt169.springboot.entities.User;
+import fpt.kiennt169.springboot.exceptions.ResourceNotFoundException;
+import fpt.kiennt169.springboot.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserAuthSnapshotServiceImpl implements UserAuthSnapshotService {
+
+    static final String CACHE_NAME = "userAuth";
+
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = CACHE_NAME, key = "#email", sync = true)
+    public UserAuthSnapshot getByEmail(String email) {
+        log.debug("Loading auth snapshot for user: {}", email);
+
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+
+        Set<String> roleNames = user.getRoles().stream()
+                .map(role -> role.getName().name())
+                .collect(Collectors.toCollection(HashSet::new));
+
+        return UserAuthSnapshot.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .passwordHash(user.getPassword())
+                .active(user.getActive())
+                .roles(roleNames)
+                .username(user.getUsername())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .fullName(user.getFullName())
+                .dateOfBirth(user.getDateOfBirth())
+                .phoneNumber(user.getPhoneNumber())
+                .build();
+    }
+
+    @Override
+    @CacheEvict(value = CACHE_NAME, key = "#email")
+    public void evict(String email) {
+        log.debug("Evicting auth snapshot for user: {}", email);
+    }
+
+    @Override
+    @CacheEvict(value = CACHE_NAME, allEntries = true)
+    public void evictAll() {
+        log.debug("Evicting all auth snapshots");
+    }
+}
@@ -1,9 +1,11 @@
 package fpt.kiennt169.springboot.services;
 
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
 import fpt.kiennt169.springboot.dtos.users.UserRequestDTO;
 import fpt.kiennt169.springboot.dtos.users.UserResponseDTO;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.UUID;
 
@@ -47,6 +49,19 @@ public interface UserService {
      */
     PageResponseDTO<UserResponseDTO> searchWithPaging(String fullName, Boolean active, Pageable pageable);
     
+    /**
+     * Scroll users with keyset pagination
+     * No count query is run and deep slices cost the same as the first
+     * 
+     * @param fullName the full name to search (optional, case-insensitive)
+     * @param active filter by active status (optional)
+     * @param cursor the cursor returned with the previous slice (null for the first slice)
+     * @param size number of items per slice
+     * @param sort sort order over whitelisted keys
+     * @return slice of users with the cursor to the next slice
+     */
+    CursorPageResponseDTO<UserResponseDTO> scroll(String fullName, Boolean active, String cursor, int size, Sort sort);
+    
     /**
      * Get a user by ID
      * 
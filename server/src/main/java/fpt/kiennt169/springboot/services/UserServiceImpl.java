@@ -1,5 +1,7 @@
 package fpt.kiennt169.springboot.services;
 
+import fpt.kiennt169.springboot.cache.SearchResultCache;
+import fpt.kiennt169.springboot.dtos.CursorPageResponseDTO;
 import fpt.kiennt169.springboot.dtos.PageResponseDTO;
 import fpt.kiennt169.springboot.dtos.users.UserRequestDTO;
 import fpt.kiennt169.springboot.dtos.users.UserUpdateDTO;
@@ -9,6 +11,8 @@ import fpt.kiennt169.springboot.entities.User;
 import fpt.kiennt169.springboot.exceptions.EmailAlreadyExistsException;
 import fpt.kiennt169.springboot.exceptions.ResourceNotFoundException;
 import fpt.kiennt169.springboot.mappers.UserMapper;
+import fpt.kiennt169.springboot.pagination.KeysetPager;
+import fpt.kiennt169.springboot.pagination.TwoPhasePager;
 import fpt.kiennt169.springboot.repositories.RoleRepository;
 import fpt.kiennt169.springboot.repositories.UserRepository;
 import fpt.kiennt169.springboot.specifications.UserSpecification;
@@ -17,12 +21,15 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -31,10 +38,22 @@ import java.util.UUID;
 @Transactional
 public class UserServiceImpl implements UserService {
     
+    static final String SEARCH_ENTITY = "user";
+    
+    private static final Map<String, Class<?>> SCROLL_KEYS = Map.of(
+            "createdAt", LocalDateTime.class,
+            "email", String.class,
+            "fullName", String.class);
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final SearchResultCache searchResultCache;
+    private final UserAuthSnapshotService userAuthSnapshotService;
+    private final TokenRevocationService tokenRevocationService;
+    private final KeysetPager keysetPager;
+    private final TwoPhasePager twoPhasePager;
 
     @Override
     public UserResponseDTO create(UserRequestDTO requestDTO) {
@@ -62,6 +81,7 @@ public class UserServiceImpl implements UserService {
         assignRolesToUser(user, requestDTO.roleIds());
         
         User savedUser = userRepository.save(user);
+        searchResultCache.invalidate(SEARCH_ENTITY);
         return userMapper.toResponseDTO(savedUser);
     }
 
@@ -76,19 +96,33 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public PageResponseDTO<UserResponseDTO> searchWithPaging(String fullName, Boolean active, Pageable pageable) {
+        Pageable page = searchResultCache.capPageSize(pageable);
+        return searchResultCache.get(SEARCH_ENTITY, page, () -> {
+            Specification<User> spec = Specification
+                    .where(UserSpecification.hasFullName(fullName))
+                    .and(UserSpecification.isActive(active));
+            
+            Page<User> userPage = twoPhasePager.page(User.class, spec, page,
+                    userRepository::findByIdIn, User::getId);
+            
+            Page<UserResponseDTO> responsePage = userPage.map(userMapper::toResponseDTO);
+            return PageResponseDTO.from(responsePage);
+        }, fullName, active);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<UserResponseDTO> scroll(String fullName, Boolean active, String cursor, int size, Sort sort) {
         Specification<User> spec = Specification
                 .where(UserSpecification.hasFullName(fullName))
                 .and(UserSpecification.isActive(active));
-        
-        Page<User> userPage = userRepository.findAll(spec, pageable);
-        
-        Page<UserResponseDTO> responsePage = userPage.map(userMapper::toResponseDTO);
-        return PageResponseDTO.from(responsePage);
+        return keysetPager.scroll(userRepository, spec, SCROLL_KEYS, sort, cursor, size,
+                users -> users.stream().map(userMapper::toResponseDTO).toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    @org.springframework.cache.annotation.Cacheable(value = "users", key = "#id")
+    @org.springframework.cache.annotation.Cacheable(value = "users", key = "#id", sync = true)
     public UserResponseDTO getById(UUID id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
@@ -97,12 +131,11 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public UserResponseDTO getByEmail(String email) {        if (email == null) {
+    public UserResponseDTO getByEmail(String email) {
+        if (email == null) {
             throw new IllegalArgumentException("Email cannot be null");
         }
-                User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
-        return userMapper.toResponseDTO(user);
+        return userAuthSnapshotService.getByEmail(email).toResponseDTO();
     }
 
     @Override
@@ -150,29 +183,41 @@ public class UserServiceImpl implements UserService {
             throw new EmailAlreadyExistsException(updateDTO.email());
         }
         
+        userAuthSnapshotService.evict(user.getEmail());
+        boolean wasActive = Boolean.TRUE.equals(user.getActive());
+        
         user.setEmail(updateDTO.email());
         user.setFullName(updateDTO.fullName());
         if (updateDTO.active() != null) {
             user.setActive(updateDTO.active());
         }
         
-        if (updateDTO.password() != null && !updateDTO.password().isBlank()) {
+        boolean passwordChanged = updateDTO.password() != null && !updateDTO.password().isBlank();
+        if (passwordChanged) {
             user.setPassword(passwordEncoder.encode(updateDTO.password()));
         }
         
+        // Outstanding access tokens must not outlive a deactivation or a password reset
+        if (passwordChanged || (wasActive && !Boolean.TRUE.equals(user.getActive()))) {
+            tokenRevocationService.revokeUser(user.getId());
+        }
+        
         assignRolesToUser(user, updateDTO.roleIds());
         
         User updatedUser = userRepository.save(user);
+        searchResultCache.invalidate(SEARCH_ENTITY);
         return userMapper.toResponseDTO(updatedUser);
     }
 
     @Override
     @CacheEvict(value = "users", key = "#id")
     public void delete(UUID id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User", "id", id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+        userAuthSnapshotService.evict(user.getEmail());
+        tokenRevocationService.revokeUser(id);
+        userRepository.delete(user);
+        searchResultCache.invalidate(SEARCH_ENTITY);
     }
     
     private void assignRolesToUser(User user, Set<UUID> roleIds) {
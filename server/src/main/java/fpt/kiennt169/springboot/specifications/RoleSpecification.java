@@ -0,0 +1,26 @@
+package fpt.kiennt169.springboot.specifications;
+
+import fpt.kiennt169.springboot.entities.Role;
+import fpt.kiennt169.springboot.enums.RoleEnum;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+public class RoleSpecification {
+
+    private RoleSpecification() {}
+
+    public static Specification<Role> nameContains(String name) {
+        return (root, query, cb) -> {
+            if (!StringUtils.hasText(name)) return null;
+            String term = name.trim().toUpperCase(Locale.ROOT);
+            List<RoleEnum> matches = Arrays.stream(RoleEnum.values())
+                    .filter(role -> role.name().contains(term))
+                    .toList();
+            return matches.isEmpty() ? cb.disjunction() : root.get("name").in(matches);
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package fpt.kiennt169.springboot.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Short, URL-safe content hashes used as cache validators (ETags).
+ */
+public final class ContentHashUtil {
+
+    private static final int HASH_BYTES = 16;
+
+    private ContentHashUtil() {
+    }
+
+    /**
+     * Hash a canonical representation of some content
+     *
+     * @param content the canonical content
+     * @return the first 128 bits of its SHA-256 digest, Base64url encoded without padding
+     */
+    public static String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, HASH_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
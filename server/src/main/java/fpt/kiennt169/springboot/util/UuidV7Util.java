@@ -0,0 +1,36 @@
+package fpt.kiennt169.springboot.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDs (version 7, RFC 9562), for ids generated outside Hibernate that
+ * should sort like the entity ids it generates.
+ */
+public final class UuidV7Util {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private UuidV7Util() {
+    }
+
+    /**
+     * Generate a UUIDv7: 48 bits of Unix epoch milliseconds followed by 74 random bits
+     *
+     * @return a new time-ordered UUID
+     */
+    public static UUID generate() {
+        byte[] random = new byte[10];
+        RANDOM.nextBytes(random);
+
+        long msb = (System.currentTimeMillis() << 16)
+                | 0x7000L
+                | ((random[0] & 0x0FL) << 8)
+                | (random[1] & 0xFFL);
+        long lsb = 0x8000000000000000L | ((random[2] & 0x3FL) << 56);
+        for (int i = 3; i < random.length; i++) {
+            lsb |= (random[i] & 0xFFL) << (8 * (random.length - 1 - i));
+        }
+        return new UUID(msb, lsb);
+    }
+}
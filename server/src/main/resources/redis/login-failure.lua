@@ -0,0 +1,17 @@
+-- Count a failed login and lock the account once the threshold is reached.
+-- Each failure past the threshold doubles the lockout, up to the maximum.
+-- KEYS[1] failure counter, KEYS[2] lock key
+-- ARGV[1] threshold, ARGV[2] base lockout ms, ARGV[3] max lockout ms, ARGV[4] failure window ms, ARGV[5] now ms
+local failures = redis.call('INCR', KEYS[1])
+local threshold = tonumber(ARGV[1])
+if failures < threshold then
+    redis.call('PEXPIRE', KEYS[1], ARGV[4])
+    return 0
+end
+
+local lockout = tonumber(ARGV[2]) * (2 ^ math.min(failures - threshold, 30))
+lockout = math.floor(math.min(lockout, tonumber(ARGV[3])))
+redis.call('SET', KEYS[2], string.format('%d', tonumber(ARGV[5]) + lockout), 'PX', lockout)
+-- Keep counting across lockouts so repeat offenders get longer windows
+redis.call('PEXPIRE', KEYS[1], math.max(tonumber(ARGV[4]), lockout * 2))
+return lockout
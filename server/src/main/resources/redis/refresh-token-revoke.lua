@@ -0,0 +1,9 @@
+-- Remove a refresh token and, if it is still the user's current token, the email pointer.
+-- KEYS[1] token key, KEYS[2] user token hash, KEYS[3] email pointer
+-- ARGV[1] token
+local removed = redis.call('DEL', KEYS[1])
+redis.call('HDEL', KEYS[2], ARGV[1])
+if redis.call('GET', KEYS[3]) == ARGV[1] then
+    redis.call('DEL', KEYS[3])
+end
+return removed
@@ -0,0 +1,20 @@
+-- Replace a refresh token with a new one. Fails if the old token was already used or revoked.
+-- KEYS[1] old token key, KEYS[2] user token hash, KEYS[3] email pointer, KEYS[4] new token key,
+-- KEYS[5] rotation result key of the old token
+-- ARGV[1] old token, ARGV[2] new token, ARGV[3] serialized new token, ARGV[4] ttl seconds, ARGV[5] created-at,
+-- ARGV[6] serialized rotation result, ARGV[7] reuse grace in milliseconds (0 disables)
+if redis.call('DEL', KEYS[1]) == 0 then
+    return 0
+end
+redis.call('HDEL', KEYS[2], ARGV[1])
+
+redis.call('SET', KEYS[4], ARGV[3], 'EX', ARGV[4])
+redis.call('HSET', KEYS[2], ARGV[2], ARGV[5])
+redis.call('EXPIRE', KEYS[2], ARGV[4])
+redis.call('SET', KEYS[3], ARGV[2], 'EX', ARGV[4])
+
+-- Written with the rotation so a caller that loses the race always finds the result
+if tonumber(ARGV[7]) > 0 then
+    redis.call('SET', KEYS[5], ARGV[6], 'PX', ARGV[7])
+end
+return 1
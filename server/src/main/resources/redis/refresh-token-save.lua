@@ -0,0 +1,45 @@
+-- Store a refresh token and make it the user's current session token.
+-- KEYS[1] token key, KEYS[2] user token hash, KEYS[3] email pointer
+-- ARGV[1] serialized token, ARGV[2] ttl seconds, ARGV[3] token, ARGV[4] created-at, ARGV[5] token key prefix
+-- The previous token's key is derived from the email pointer, so it is not declared in KEYS;
+-- this needs standalone Redis, where the deployment runs.
+
+-- Pointers are plain strings; older ones went through the value serializer as a JSON
+-- string, or as a framed JSON or Smile string (see PayloadCodec). Nil if unreadable.
+local function pointer_token(raw)
+    if string.byte(raw, 1) == 0xB7 then
+        local format, flags = string.byte(raw, 3, 4)
+        if flags ~= 0 then
+            return nil
+        end
+        raw = string.sub(raw, 5)
+        if format == 2 then
+            -- Smile header, then a tiny (0x40-0x5F) or short (0x60-0x7F) ASCII string
+            local kind = string.byte(raw, 5)
+            if string.sub(raw, 1, 3) ~= ':)\n' or kind == nil or kind < 0x40 or kind > 0x7F then
+                return nil
+            end
+            local length = kind < 0x60 and kind - 0x3F or kind - 0x5F + 32
+            return string.sub(raw, 6, 5 + length)
+        end
+    end
+    if string.sub(raw, 1, 1) == '"' then
+        local ok, token = pcall(cjson.decode, raw)
+        return ok and type(token) == 'string' and token or nil
+    end
+    return raw
+end
+
+redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2])
+redis.call('HSET', KEYS[2], ARGV[3], ARGV[4])
+redis.call('EXPIRE', KEYS[2], ARGV[2])
+
+local pointer = redis.call('GET', KEYS[3])
+local previous = pointer and pointer_token(pointer)
+if previous and previous ~= ARGV[3] then
+    redis.call('DEL', ARGV[5] .. previous)
+    redis.call('HDEL', KEYS[2], previous)
+end
+
+redis.call('SET', KEYS[3], ARGV[3], 'EX', ARGV[2])
+return 1
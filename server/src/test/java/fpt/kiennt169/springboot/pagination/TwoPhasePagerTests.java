@@ -0,0 +1,188 @@
+package fpt.kiennt169.springboot.pagination;
+
+import fpt.kiennt169.springboot.entities.Answer;
+import fpt.kiennt169.springboot.entities.Question;
+import fpt.kiennt169.springboot.enums.QuestionTypeEnum;
+import fpt.kiennt169.springboot.repositories.QuestionRepository;
+import fpt.kiennt169.springboot.specifications.QuestionSpecification;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two-phase pages must be exactly the pages the previous entity-graph query returned.
+ *
+ * 100k questions are seeded, 2,000 of them single choice with four answers each and a
+ * few soft-deleted ones on top. Both paths are compared on first, middle, last (partial)
+ * and past-the-end pages, under several sorts, and for a filter that matches nothing.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(TwoPhasePager.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TwoPhasePagerTests {
+
+    private static final int QUESTIONS = 100_000;
+    private static final int MATCH_EVERY = 50;
+    private static final int ANSWERS_PER_QUESTION = 4;
+    private static final int BATCH_SIZE = 5_000;
+    private static final int PAGE_SIZE = 30;
+
+    /**
+     * The question repository as it was before two-phase paging.
+     */
+    interface LegacyQuestionRepository extends JpaRepository<Question, UUID>, JpaSpecificationExecutor<Question> {
+
+        @Override
+        @EntityGraph(attributePaths = {"answers"})
+        Page<Question> findAll(Specification<Question> spec, Pageable pageable);
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TwoPhasePager twoPhasePager;
+
+    private final Specification<Question> singleChoice = QuestionSpecification.hasType(QuestionTypeEnum.SINGLE_CHOICE);
+
+    @BeforeAll
+    void seed() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        LocalDateTime start = LocalDateTime.now().minusDays(2);
+        List<Object[]> questions = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> answers = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < QUESTIONS; i++) {
+            boolean matching = i % MATCH_EVERY == 0;
+            addQuestion(questions, answers, i, matching, false, Timestamp.valueOf(start.plusSeconds(i)));
+            if (questions.size() == BATCH_SIZE) {
+                flush(jdbcTemplate, questions, answers);
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            addQuestion(questions, answers, QUESTIONS + i, true, true, Timestamp.valueOf(start.plusSeconds(i)));
+        }
+        flush(jdbcTemplate, questions, answers);
+    }
+
+    @Test
+    void pagesMatchTheEntityGraphQueryUnderEverySort() {
+        LegacyQuestionRepository legacyRepository =
+                new JpaRepositoryFactory(entityManager).getRepository(LegacyQuestionRepository.class);
+        int lastPage = QUESTIONS / MATCH_EVERY / PAGE_SIZE;
+
+        List<Sort> sorts = List.of(
+                Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("id")),
+                Sort.by(Sort.Order.asc("score"), Sort.Order.asc("id")),
+                Sort.by(Sort.Order.asc("content")));
+        for (Sort sort : sorts) {
+            for (int page : List.of(0, 1, lastPage / 2, lastPage, lastPage + 1)) {
+                Pageable pageable = PageRequest.of(page, PAGE_SIZE, sort);
+                assertSamePage(legacyRepository.findAll(singleChoice, pageable),
+                        twoPhasePager.page(Question.class, singleChoice, pageable,
+                                questionRepository::findByIdIn, Question::getId));
+            }
+        }
+    }
+
+    @Test
+    void lastPageIsPartial() {
+        Pageable pageable = PageRequest.of(QUESTIONS / MATCH_EVERY / PAGE_SIZE, PAGE_SIZE, Sort.by("createdAt"));
+
+        Page<Question> page = twoPhasePager.page(Question.class, singleChoice, pageable,
+                questionRepository::findByIdIn, Question::getId);
+
+        assertThat(page.getTotalElements()).isEqualTo(QUESTIONS / MATCH_EVERY);
+        assertThat(page.getNumberOfElements()).isEqualTo(QUESTIONS / MATCH_EVERY % PAGE_SIZE);
+        assertThat(page.isLast()).isTrue();
+    }
+
+    @Test
+    void emptyResultMatchesTheEntityGraphQuery() {
+        LegacyQuestionRepository legacyRepository =
+                new JpaRepositoryFactory(entityManager).getRepository(LegacyQuestionRepository.class);
+        Specification<Question> nothing = singleChoice.and(QuestionSpecification.hasContent("no such question"));
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by("createdAt"));
+
+        Page<Question> page = twoPhasePager.page(Question.class, nothing, pageable,
+                questionRepository::findByIdIn, Question::getId);
+
+        assertSamePage(legacyRepository.findAll(nothing, pageable), page);
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isZero();
+        assertThat(page.getTotalPages()).isZero();
+    }
+
+    private static void assertSamePage(Page<Question> expected, Page<Question> actual) {
+        assertThat(ids(actual)).isEqualTo(ids(expected));
+        assertThat(answerIds(actual)).isEqualTo(answerIds(expected));
+        assertThat(actual.getTotalElements()).isEqualTo(expected.getTotalElements());
+        assertThat(actual.getTotalPages()).isEqualTo(expected.getTotalPages());
+        assertThat(actual.getNumber()).isEqualTo(expected.getNumber());
+    }
+
+    private static List<UUID> ids(Page<Question> page) {
+        return page.getContent().stream().map(Question::getId).toList();
+    }
+
+    private static List<Set<UUID>> answerIds(Page<Question> page) {
+        return page.getContent().stream()
+                .map(question -> question.getAnswers().stream().map(Answer::getId).collect(Collectors.toSet()))
+                .toList();
+    }
+
+    private static void addQuestion(List<Object[]> questions, List<Object[]> answers, int i,
+                                    boolean matching, boolean deleted, Timestamp createdAt) {
+        UUID questionId = UUID.randomUUID();
+        QuestionTypeEnum type = matching ? QuestionTypeEnum.SINGLE_CHOICE : QuestionTypeEnum.MULTIPLE_CHOICE;
+        questions.add(new Object[] {questionId, "Question " + i, type.name(), i % 7, createdAt, deleted});
+        if (matching) {
+            for (int a = 0; a < ANSWERS_PER_QUESTION; a++) {
+                answers.add(new Object[] {UUID.randomUUID(), "Answer " + a + " of question " + i, a == 0,
+                        questionId, createdAt, deleted});
+            }
+        }
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, List<Object[]> questions, List<Object[]> answers) {
+        jdbcTemplate.batchUpdate("INSERT INTO questions (id, content, type, score, created_at, is_deleted) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", questions);
+        jdbcTemplate.batchUpdate("INSERT INTO answers (id, content, is_correct, question_id, created_at, is_deleted) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", answers);
+        questions.clear();
+        answers.clear();
+    }
+}